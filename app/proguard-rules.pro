@@ -18,4 +18,12 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+
+# Debug logging facade: release builds drop every call together with its message lambda.
+-assumenosideeffects class com.example.sambaapp.core.AppLog {
+    public static void d(...);
+    public static void i(...);
+    public static void w(...);
+    public static void e(...);
+}
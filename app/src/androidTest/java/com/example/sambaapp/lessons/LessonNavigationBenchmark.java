@@ -0,0 +1,211 @@
+package com.example.sambaapp.lessons;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Parcel;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sambaapp.lessons.data.LessonStore;
+import com.example.sambaapp.lessons.model.LessonModel;
+import com.example.sambaapp.lessons.view.LessonDetailsActivity;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares passing a lesson to {@link LessonDetailsActivity} as a Serializable Intent extra
+ * (the previous approach) with passing its id through {@link LessonStore}.
+ *
+ * <p>Results are written to logcat under the {@code LESSON_BENCHMARK} tag.</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class LessonNavigationBenchmark {
+
+    private static final String TAG = "LESSON_BENCHMARK";
+    private static final String EXTRA_SERIALIZED = "lesson_serialized";
+    private static final int ROUND_TRIPS = 500;
+    private static final int LAUNCHES = 10;
+
+    /** A lesson with a long description, the case that made Serializable extras expensive */
+    private static LessonModel longLesson() {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            description.append("Samba step ").append(i).append(". ");
+        }
+        LessonModel lesson = new LessonModel("18:00", "Benchmark lesson", "Added by benchmark",
+                description.toString(), "file:///nonexistent.mp4", 0, 20, false, false,
+                "icon_image_dance", "Beginners");
+        lesson.setId("benchmark-lesson");
+        lesson.setVideoPath("file:///nonexistent.mp4");
+        return lesson;
+    }
+
+    @Test
+    public void extrasRoundTrip_idIsCheaperThanSerializable() {
+        LessonModel lesson = longLesson();
+
+        long serializableNs = medianRoundTripNs(() -> {
+            Intent intent = new Intent();
+            intent.putExtra(EXTRA_SERIALIZED, lesson);
+            return intent;
+        }, intent -> intent.getSerializableExtra(EXTRA_SERIALIZED));
+
+        long idNs = medianRoundTripNs(() -> {
+            Intent intent = new Intent();
+            LessonStore.putExtra(intent, lesson);
+            return intent;
+        }, LessonStore::fromIntent);
+
+        Log.i(TAG, "Intent extras round trip (median): serializable=" + serializableNs / 1_000
+                + "µs, id=" + idNs / 1_000 + "µs");
+        assertTrue("id extras should marshal faster than the Serializable lesson", idNs < serializableNs);
+    }
+
+    @Test
+    public void tapToFirstFrame_serializableVsId() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        LessonModel lesson = longLesson();
+
+        long[] serializable = new long[LAUNCHES];
+        long[] byId = new long[LAUNCHES];
+        for (int i = 0; i < LAUNCHES; i++) {
+            // Previous path: the whole lesson rides in the Intent
+            Intent old = new Intent(context, LessonDetailsActivity.class);
+            old.putExtra(EXTRA_SERIALIZED, lesson);
+            LessonStore.putExtra(old, lesson);
+            serializable[i] = timeToFirstFrameNs(old);
+
+            Intent current = new Intent(context, LessonDetailsActivity.class);
+            LessonStore.putExtra(current, lesson);
+            byId[i] = timeToFirstFrameNs(current);
+        }
+
+        Log.i(TAG, "Tap to first frame (median): serializable=" + median(serializable) / 1_000_000
+                + "ms, id=" + median(byId) / 1_000_000 + "ms");
+    }
+
+    private interface IntentFactory {
+        Intent create();
+    }
+
+    private interface IntentReader {
+        Object read(Intent intent);
+    }
+
+    /**
+     * Writes the Intent to a Parcel and reads it back, as happens when an activity is started,
+     * then resolves the lesson on the receiving side.
+     */
+    private static long medianRoundTripNs(IntentFactory factory, IntentReader reader) {
+        long[] samples = new long[ROUND_TRIPS];
+        for (int i = 0; i < ROUND_TRIPS; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            Parcel parcel = Parcel.obtain();
+            try {
+                factory.create().writeToParcel(parcel, 0);
+                parcel.setDataPosition(0);
+                Intent received = Intent.CREATOR.createFromParcel(parcel);
+                received.setExtrasClassLoader(LessonModel.class.getClassLoader());
+                assertNotNull(reader.read(received));
+            } finally {
+                parcel.recycle();
+            }
+            samples[i] = SystemClock.elapsedRealtimeNanos() - start;
+        }
+        return median(samples);
+    }
+
+    /**
+     * Starts the activity and measures the time until its first frame is drawn.
+     */
+    private static long timeToFirstFrameNs(Intent intent) throws InterruptedException {
+        Application app = (Application) InstrumentationRegistry.getInstrumentation()
+                .getTargetContext().getApplicationContext();
+        CountDownLatch drawn = new CountDownLatch(1);
+        long[] drawnAt = new long[1];
+        Application.ActivityLifecycleCallbacks callbacks = new FirstDrawCallbacks(drawn, drawnAt);
+        app.registerActivityLifecycleCallbacks(callbacks);
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        try (ActivityScenario<LessonDetailsActivity> ignored = ActivityScenario.launch(intent)) {
+            assertTrue("first frame was not drawn", drawn.await(10, TimeUnit.SECONDS));
+        } finally {
+            app.unregisterActivityLifecycleCallbacks(callbacks);
+        }
+        return drawnAt[0] - start;
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /** Records the time of the first draw of the next started activity */
+    private static class FirstDrawCallbacks implements Application.ActivityLifecycleCallbacks {
+        private final CountDownLatch drawn;
+        private final long[] drawnAt;
+
+        FirstDrawCallbacks(CountDownLatch drawn, long[] drawnAt) {
+            this.drawn = drawn;
+            this.drawnAt = drawnAt;
+        }
+
+        @Override
+        public void onActivityStarted(@NonNull Activity activity) {
+            View decor = activity.getWindow().getDecorView();
+            decor.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    if (drawn.getCount() > 0) {
+                        drawnAt[0] = SystemClock.elapsedRealtimeNanos();
+                        drawn.countDown();
+                    }
+                    return true;
+                }
+            });
+        }
+
+        @Override
+        public void onActivityCreated(@NonNull Activity activity, Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityResumed(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(@NonNull Activity activity) {
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.sambaapp.lessons.fragment;
+
+import android.content.Context;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.CheckBox;
+import android.widget.CompoundButton;
+import android.widget.FrameLayout;
+import android.widget.ImageButton;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sambaapp.R;
+import com.example.sambaapp.lessons.model.LessonModel;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that scrolling a lesson list allocates no listeners once its view holders exist.
+ *
+ * <p>Rows are built from views that record every listener set on them. A list is scrolled top to
+ * bottom and back several times, and the number of listeners set must stay at what the view
+ * holder constructors set, however many rows were bound.</p>
+ *
+ * <p>Results are written to logcat under the {@code LESSON_BENCHMARK} tag.</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class LessonAdapterAllocationTest {
+
+    private static final String TAG = "LESSON_BENCHMARK";
+    private static final int LESSONS = 200;
+    private static final int PASSES = 5;
+    /** Listeners a lesson row sets: watched, long press, play, heart, item click and edit */
+    private static final int LISTENERS_PER_ROW = 6;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    @Test
+    public void steadyStateScrolling_allocatesNoListeners() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            int[] listenersSet = new int[1];
+            RecordingLessonAdapter adapter = new RecordingLessonAdapter(lessons(), listenersSet);
+
+            RecyclerView recyclerView = new RecyclerView(context);
+            recyclerView.setLayoutManager(new LinearLayoutManager(context));
+            recyclerView.setAdapter(adapter);
+            recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            recyclerView.layout(0, 0, WIDTH, HEIGHT);
+
+            for (int pass = 0; pass < PASSES; pass++) {
+                scrollThroughList(recyclerView, HEIGHT / 3);
+                scrollThroughList(recyclerView, -HEIGHT / 3);
+            }
+
+            Log.i(TAG, "Scrolling: holders=" + adapter.created + ", binds=" + adapter.bound
+                    + ", listeners set=" + listenersSet[0]);
+            assertTrue("rows were not recycled", adapter.bound > adapter.created * 2);
+            assertEquals("binding allocated listeners",
+                    adapter.created * LISTENERS_PER_ROW, listenersSet[0]);
+        });
+    }
+
+    private static void scrollThroughList(RecyclerView recyclerView, int step) {
+        for (int i = 0; i < LESSONS * 2; i++) {
+            recyclerView.scrollBy(0, step);
+        }
+    }
+
+    private static List<LessonModel> lessons() {
+        List<LessonModel> lessons = new ArrayList<>(LESSONS);
+        for (int i = 0; i < LESSONS; i++) {
+            LessonModel lesson = new LessonModel(null, "Lesson " + i, "Subtitle " + i, null, null,
+                    0, 0, false, false, "basic_icon_image", "Beginners");
+            lesson.setId("lesson-" + i);
+            lessons.add(lesson);
+        }
+        return lessons;
+    }
+
+    /** Inflates rows from recording views and counts holders and binds */
+    private static class RecordingLessonAdapter extends LessonAdapter {
+        private final int[] listenersSet;
+        int created;
+        int bound;
+
+        RecordingLessonAdapter(List<LessonModel> lessons, int[] listenersSet) {
+            super(lessons, true);
+            this.listenersSet = listenersSet;
+        }
+
+        @NonNull
+        @Override
+        public LessonViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            created++;
+            return new LessonViewHolder(recordingRow(parent.getContext(), listenersSet));
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull LessonViewHolder holder, int position) {
+            bound++;
+            super.onBindViewHolder(holder, position);
+        }
+    }
+
+    /** A row holding the views {@code item_lesson.xml} declares, counting the listeners set on them */
+    private static View recordingRow(Context context, int[] listenersSet) {
+        FrameLayout row = new FrameLayout(context) {
+            @Override
+            public void setOnClickListener(OnClickListener l) {
+                if (l != null) listenersSet[0]++;
+                super.setOnClickListener(l);
+            }
+
+            @Override
+            public void setOnLongClickListener(OnLongClickListener l) {
+                if (l != null) listenersSet[0]++;
+                super.setOnLongClickListener(l);
+            }
+        };
+        row.setLayoutParams(new RecyclerView.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+
+        TextView title = new TextView(context);
+        title.setId(R.id.tv_lesson_title);
+        TextView subtitle = new TextView(context);
+        subtitle.setId(R.id.tv_lesson_subtitle);
+        ImageView icon = new ImageView(context);
+        icon.setId(R.id.iv_lesson_icon);
+        CheckBox watched = new CheckBox(context) {
+            @Override
+            public void setOnCheckedChangeListener(CompoundButton.OnCheckedChangeListener l) {
+                if (l != null) listenersSet[0]++;
+                super.setOnCheckedChangeListener(l);
+            }
+        };
+        watched.setId(R.id.cb_watched);
+
+        row.addView(title);
+        row.addView(subtitle);
+        row.addView(icon);
+        row.addView(recordingButton(context, R.id.iv_play_button, listenersSet));
+        row.addView(recordingButton(context, R.id.iv_heart_button, listenersSet));
+        row.addView(recordingButton(context, R.id.btn_edit, listenersSet));
+        row.addView(watched);
+        return row;
+    }
+
+    private static ImageButton recordingButton(Context context, int id, int[] listenersSet) {
+        ImageButton button = new ImageButton(context) {
+            @Override
+            public void setOnClickListener(OnClickListener l) {
+                if (l != null) listenersSet[0]++;
+                super.setOnClickListener(l);
+            }
+        };
+        button.setId(id);
+        return button;
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * {@code AppLog} is the app's logging facade for its hot and chatty debug paths.
+ *
+ * <p>Messages are passed as {@link Supplier}s and only built when the message is actually
+ * logged, so a suppressed log line costs no string concatenation, file check or preference
+ * read. Every tag has its own {@link Tag}. On paths that must not allocate at all, such as row
+ * binds, pass a non-capturing {@link Function} and its argument instead: the function is one
+ * shared instance, so a suppressed message allocates nothing.</p>
+ *
+ * <ul>
+ *     <li><b>Release builds:</b> nothing is logged; R8 removes the calls and their message
+ *         lambdas entirely ({@code -assumenosideeffects} in {@code proguard-rules.pro}).</li>
+ *     <li><b>Debug builds:</b> each tag can be sampled (only every n-th message is logged,
+ *         {@link #setSampling}) and rate limited ({@link #setRateLimit}); the number of
+ *         messages dropped by the limit is reported once per second.</li>
+ * </ul>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * AppLog.d(AppLog.Tag.ADAPTER, () -> "📌 Binding lesson: " + lesson.getTitle());
+ * }</pre>
+ */
+package com.example.sambaapp.core;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.sambaapp.BuildConfig;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public final class AppLog {
+
+    /** Log tags of the app; the enum name is the logcat tag */
+    public enum Tag {
+        ADAPTER,
+        LESSON_VIEW_MODEL,
+        PROFILE_DEBUG,
+        LOGIN_FLOW
+    }
+
+    private static final boolean ENABLED = BuildConfig.DEBUG;
+    private static final long WINDOW_MS = 1_000;
+
+    private static final Map<Tag, TagState> STATES = new EnumMap<>(Tag.class);
+
+    static {
+        for (Tag tag : Tag.values()) {
+            STATES.put(tag, new TagState());
+        }
+        // Row binds run for every row scrolled in; a few per second are enough to follow them
+        setRateLimit(Tag.ADAPTER, 20);
+    }
+
+    private AppLog() {
+    }
+
+    /**
+     * Logs only every {@code everyNth} message of a tag (debug builds).
+     *
+     * @param tag      The tag to sample
+     * @param everyNth 1 to log every message
+     */
+    public static void setSampling(Tag tag, int everyNth) {
+        STATES.get(tag).setSampling(Math.max(1, everyNth));
+    }
+
+    /**
+     * Caps how many messages of a tag are logged per second (debug builds).
+     *
+     * @param tag       The tag to limit
+     * @param perSecond Maximum messages per second; 0 or less for no limit
+     */
+    public static void setRateLimit(Tag tag, int perSecond) {
+        STATES.get(tag).setRateLimit(perSecond);
+    }
+
+    /** Logs a debug message. */
+    public static void d(Tag tag, Supplier<String> message) {
+        if (ENABLED && STATES.get(tag).admit(tag)) {
+            Log.d(tag.name(), message.get());
+        }
+    }
+
+    /**
+     * Logs a debug message built from {@code arg}, without allocating when it is suppressed.
+     *
+     * @param message A non-capturing function, e.g. a {@code static final} constant
+     * @param arg     The value the message is built from
+     */
+    public static <T> void d(Tag tag, Function<T, String> message, T arg) {
+        if (ENABLED && STATES.get(tag).admit(tag)) {
+            Log.d(tag.name(), message.apply(arg));
+        }
+    }
+
+    /** Logs an info message. */
+    public static void i(Tag tag, Supplier<String> message) {
+        if (ENABLED && STATES.get(tag).admit(tag)) {
+            Log.i(tag.name(), message.get());
+        }
+    }
+
+    /** Logs a warning. */
+    public static void w(Tag tag, Supplier<String> message) {
+        if (ENABLED && STATES.get(tag).admit(tag)) {
+            Log.w(tag.name(), message.get());
+        }
+    }
+
+    /** Logs an error; errors are never sampled or rate limited. */
+    public static void e(Tag tag, Supplier<String> message, Throwable error) {
+        if (ENABLED) {
+            Log.e(tag.name(), message.get(), error);
+        }
+    }
+
+    /** Sampling and rate limit state of one tag */
+    private static final class TagState {
+        private int sampleEvery = 1;
+        private int perSecond;
+        private long seen;
+        private long windowStart;
+        private int loggedInWindow;
+        private int droppedInWindow;
+
+        synchronized void setSampling(int everyNth) {
+            sampleEvery = everyNth;
+        }
+
+        synchronized void setRateLimit(int limit) {
+            perSecond = limit;
+        }
+
+        synchronized boolean admit(Tag tag) {
+            if (seen++ % sampleEvery != 0) return false;
+            if (perSecond <= 0) return true;
+
+            long now = SystemClock.elapsedRealtime();
+            if (now - windowStart >= WINDOW_MS) {
+                if (droppedInWindow > 0) {
+                    Log.d(tag.name(), "… " + droppedInWindow + " messages dropped by the rate limit");
+                }
+                windowStart = now;
+                loggedInWindow = 0;
+                droppedInWindow = 0;
+            }
+            if (loggedInWindow < perSecond) {
+                loggedInWindow++;
+                return true;
+            }
+            droppedInWindow++;
+            return false;
+        }
+    }
+}
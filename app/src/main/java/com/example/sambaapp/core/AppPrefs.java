@@ -0,0 +1,330 @@
+/**
+ * {@code AppPrefs} is the app's key-value store, replacing direct {@code SharedPreferences}
+ * access for {@value #USER} and {@value #APP}.
+ *
+ * <p>Each store is loaded once, on a background thread, when the process starts
+ * ({@link #preload(Context)}), and every read is then served from memory. A read made before
+ * the load finished waits for it, instead of parsing the XML file on the calling thread.</p>
+ *
+ * <p>Writes go through an {@link Editor}: {@link Editor#apply()} swaps in a new immutable map
+ * holding all its changes, so readers never see half an edit, and schedules one write of the
+ * whole store. Edits applied within {@link #WRITE_DELAY_MS} are written together, to a temporary
+ * file that then replaces the store file.</p>
+ *
+ * <p>On first use {@value #USER} is migrated from the {@code SharedPreferences} XML file of the
+ * same name; the XML file is left untouched and no longer read. {@value #APP} is new and starts
+ * empty. The {@code SambaAppPrefs} file is not migrated here: its lesson sets are owned and
+ * migrated by {@link JournaledSetStore}.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * AppPrefs prefs = AppPrefs.get(context, AppPrefs.USER);
+ * String name = prefs.getString("user_name", null);
+ * prefs.edit().putString("user_name", name).apply();
+ * }</pre>
+ */
+package com.example.sambaapp.core;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public final class AppPrefs {
+
+    /** User profile data: name, age, email, role and profile image paths */
+    public static final String USER = "user_prefs";
+    /** App-wide data, e.g. one-time maintenance flags */
+    public static final String APP = "app_prefs";
+
+    private static final String TAG = "APP_PREFS";
+    private static final String DIR = "prefs";
+    /** How long applied edits are collected before the store is written */
+    private static final long WRITE_DELAY_MS = 200;
+
+    private static final Map<String, AppPrefs> STORES = new HashMap<>();
+    /** Loads and writes all stores, one at a time */
+    private static final ScheduledExecutorService IO = Executors.newSingleThreadScheduledExecutor();
+
+    private final String name;
+    private final File file;
+    /** Immutable; replaced as a whole by every applied edit */
+    private volatile Map<String, Object> values = Collections.emptyMap();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    /** Serializes edits and guards {@link #writeScheduled} */
+    private final Object lock = new Object();
+    private boolean writeScheduled;
+
+    private AppPrefs(Context context, String name) {
+        this.name = name;
+        this.file = new File(new File(context.getFilesDir(), DIR), name + ".json");
+        IO.execute(() -> load(context));
+    }
+
+    /**
+     * Starts loading every store in the background; call once at process start.
+     *
+     * @param context Any context
+     */
+    public static void preload(Context context) {
+        get(context, USER);
+        get(context, APP);
+    }
+
+    /**
+     * Returns a store, starting its load on first use.
+     *
+     * @param context Any context; only the application context is used
+     * @param name    {@link #USER} or {@link #APP}
+     * @return The store
+     */
+    public static AppPrefs get(Context context, String name) {
+        synchronized (STORES) {
+            AppPrefs prefs = STORES.get(name);
+            if (prefs == null) {
+                prefs = new AppPrefs(context.getApplicationContext(), name);
+                STORES.put(name, prefs);
+            }
+            return prefs;
+        }
+    }
+
+    public String getString(String key, String defValue) {
+        Object value = read(key);
+        return value instanceof String ? (String) value : defValue;
+    }
+
+    public boolean getBoolean(String key, boolean defValue) {
+        Object value = read(key);
+        return value instanceof Boolean ? (Boolean) value : defValue;
+    }
+
+    public long getLong(String key, long defValue) {
+        Object value = read(key);
+        return value instanceof Number ? ((Number) value).longValue() : defValue;
+    }
+
+    /** @return The string set stored under {@code key} (unmodifiable), or an empty set */
+    @SuppressWarnings("unchecked")
+    public Set<String> getStringSet(String key) {
+        Object value = read(key);
+        return value instanceof Set ? (Set<String>) value : Collections.<String>emptySet();
+    }
+
+    public boolean contains(String key) {
+        return read(key) != null;
+    }
+
+    /** @return An editor whose changes are applied together by {@link Editor#apply()} */
+    public Editor edit() {
+        return new Editor();
+    }
+
+    private Object read(String key) {
+        awaitLoad();
+        return values.get(key);
+    }
+
+    private void awaitLoad() {
+        if (loaded.getCount() == 0) return;
+        long start = SystemClock.elapsedRealtime();
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            Log.w(TAG, "⏳ Main thread waited " + (SystemClock.elapsedRealtime() - start)
+                    + " ms for " + name + " to load");
+        }
+    }
+
+    // --------------------------
+    // Loading and writing (IO thread)
+    // --------------------------
+
+    private void load(Context context) {
+        try {
+            if (file.exists()) {
+                readFile();
+            } else if (USER.equals(name)) {
+                migrate(context);
+            }
+        } finally {
+            loaded.countDown();
+        }
+    }
+
+    private void readFile() {
+        Map<String, Object> stored = new HashMap<>();
+        try (InputStream in = new FileInputStream(file)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            JSONObject json = new JSONObject(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+            Iterator<String> keys = json.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                Object value = json.get(key);
+                if (value instanceof JSONArray) {
+                    JSONArray array = (JSONArray) value;
+                    Set<String> set = new HashSet<>();
+                    for (int i = 0; i < array.length(); i++) {
+                        set.add(array.getString(i));
+                    }
+                    value = Collections.unmodifiableSet(set);
+                }
+                if (value != JSONObject.NULL) stored.put(key, value);
+            }
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "❌ Failed to read " + name, e);
+        }
+        values = Collections.unmodifiableMap(stored);
+    }
+
+    /** Copies the SharedPreferences XML file the store replaces, then writes the store */
+    private void migrate(Context context) {
+        Map<String, ?> legacy = context.getSharedPreferences(name, Context.MODE_PRIVATE).getAll();
+        Map<String, Object> migrated = new HashMap<>();
+        for (Map.Entry<String, ?> entry : legacy.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Set) {
+                @SuppressWarnings("unchecked")
+                Set<String> set = new HashSet<>((Set<String>) value);
+                migrated.put(entry.getKey(), Collections.unmodifiableSet(set));
+            } else if (value != null) {
+                migrated.put(entry.getKey(), value);
+            }
+        }
+        values = Collections.unmodifiableMap(migrated);
+        write();
+        Log.d(TAG, "📦 Migrated " + values.size() + " entries of " + name);
+    }
+
+    private void scheduleWrite() {
+        synchronized (lock) {
+            if (writeScheduled) return;
+            writeScheduled = true;
+        }
+        IO.schedule(this::write, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void write() {
+        JSONObject json = new JSONObject();
+        synchronized (lock) {
+            writeScheduled = false;
+            try {
+                for (Map.Entry<String, Object> entry : values.entrySet()) {
+                    Object value = entry.getValue();
+                    json.put(entry.getKey(), value instanceof Set ? new JSONArray((Set<?>) value) : value);
+                }
+            } catch (JSONException e) {
+                Log.e(TAG, "❌ Failed to encode " + name, e);
+                return;
+            }
+        }
+        File dir = file.getParentFile();
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("cannot create " + dir);
+            }
+            try (FileOutputStream out = new FileOutputStream(tmp)) {
+                out.write(json.toString().getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+            }
+            if (!tmp.renameTo(file)) {
+                throw new IOException("rename failed");
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Failed to write " + name, e);
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Collects changes to apply together. Like {@code SharedPreferences.Editor}, removals are
+     * applied before puts.
+     */
+    public final class Editor {
+        private final Map<String, Object> puts = new HashMap<>();
+        private final Set<String> removals = new HashSet<>();
+
+        private Editor() {
+        }
+
+        public Editor putString(String key, String value) {
+            return put(key, value);
+        }
+
+        public Editor putBoolean(String key, boolean value) {
+            return put(key, value);
+        }
+
+        public Editor putLong(String key, long value) {
+            return put(key, value);
+        }
+
+        public Editor putStringSet(String key, Set<String> value) {
+            return put(key, value != null ? Collections.unmodifiableSet(new HashSet<>(value)) : null);
+        }
+
+        public Editor remove(String key) {
+            removals.add(key);
+            return this;
+        }
+
+        /** Applies the changes to memory at once and writes the store in the background. */
+        public void apply() {
+            awaitLoad();
+            synchronized (lock) {
+                Map<String, Object> next = new HashMap<>(values);
+                for (String key : removals) {
+                    next.remove(key);
+                }
+                for (Map.Entry<String, Object> entry : puts.entrySet()) {
+                    if (entry.getValue() == null) {
+                        next.remove(entry.getKey());
+                    } else {
+                        next.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                // Re-applying what is stored already (e.g. the profile on every resume) writes nothing
+                if (next.equals(values)) return;
+                values = Collections.unmodifiableMap(next);
+            }
+            scheduleWrite();
+        }
+
+        private Editor put(String key, Object value) {
+            puts.put(key, value);
+            return this;
+        }
+    }
+}
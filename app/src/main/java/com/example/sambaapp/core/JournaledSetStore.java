@@ -0,0 +1,329 @@
+/**
+ * {@code JournaledSetStore} keeps named sets of lesson ids in memory and persists them
+ * write-behind to an append-only journal file.
+ *
+ * <p>The sets are loaded once per process. Queries read the in-memory sets without copying them;
+ * a mutation updates memory right away and queues one journal line ({@code +set\tid} or
+ * {@code -set\tid}). Queued lines are appended to the journal in one write, debounced by
+ * {@link #FLUSH_DELAY_MS}, on a background thread. When the journal has grown well past the live
+ * entries it is compacted: the current sets are written to a temporary file that then replaces
+ * the journal, so a crash leaves either the old or the new journal. A line cut off by a crash
+ * mid-append is dropped when the journal is loaded, and the journal is compacted right away so
+ * the next append does not continue the cut-off line.</p>
+ *
+ * <p>On first use the sets are migrated from the {@code SharedPreferences} string sets
+ * {@link LocalStorageManager} used before.</p>
+ *
+ * <p>Used through {@link LocalStorageManager}.</p>
+ */
+package com.example.sambaapp.core;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+final class JournaledSetStore {
+
+    private static final String TAG = "SET_STORE";
+    private static final String JOURNAL_FILE = "lesson_sets.journal";
+    /** How long mutations are collected before they are appended in one write */
+    private static final long FLUSH_DELAY_MS = 500;
+    /** Journal lines allowed beyond the live entries before the journal is compacted */
+    private static final int COMPACTION_SLACK = 256;
+
+    private static volatile JournaledSetStore instance;
+
+    private final File journal;
+    private final Map<String, Set<String>> sets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+    /** Guards {@link #pending}, {@link #flushScheduled} and the order of set changes */
+    private final Object lock = new Object();
+    private List<String> pending = new ArrayList<>();
+    private boolean flushScheduled;
+    /** Lines currently in the journal file; writer thread only */
+    private int journalLines;
+
+    private JournaledSetStore(Context context, String legacyPrefs, String... legacyKeys) {
+        this(new File(context.getFilesDir(), JOURNAL_FILE));
+        if (!journal.exists()) {
+            migrate(context.getSharedPreferences(legacyPrefs, Context.MODE_PRIVATE), legacyKeys);
+        }
+    }
+
+    /**
+     * Opens a store on its own journal file, without migrating anything; used by tests.
+     *
+     * @param journal The journal file; the store starts empty if it does not exist
+     */
+    JournaledSetStore(File journal) {
+        this.journal = journal;
+        if (journal.exists()) {
+            load();
+        }
+    }
+
+    /**
+     * Returns the process-wide store, loading it on first use.
+     *
+     * @param context     Any context; only the files directory is kept
+     * @param legacyPrefs Preferences file holding the string sets to migrate from
+     * @param legacyKeys  Keys of the string sets to migrate; they become the set names
+     * @return The loaded store
+     */
+    static JournaledSetStore getInstance(Context context, String legacyPrefs, String... legacyKeys) {
+        JournaledSetStore store = instance;
+        if (store == null) {
+            synchronized (JournaledSetStore.class) {
+                store = instance;
+                if (store == null) {
+                    store = new JournaledSetStore(context.getApplicationContext(), legacyPrefs, legacyKeys);
+                    instance = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * @param set Name of the set
+     * @param id  The lesson id to look up
+     * @return Whether the set contains the id; no copying involved
+     */
+    boolean contains(String set, String id) {
+        return id != null && set(set).contains(id);
+    }
+
+    /**
+     * @param set Name of the set
+     * @return A live, unmodifiable view of the set
+     */
+    Set<String> view(String set) {
+        return Collections.unmodifiableSet(set(set));
+    }
+
+    /**
+     * Adds an id to a set; the change is persisted in the background.
+     *
+     * @return {@code true} if the set did not contain the id yet
+     */
+    boolean add(String set, String id) {
+        synchronized (lock) {
+            if (!set(set).add(id)) return false;
+            enqueue('+', set, id);
+            return true;
+        }
+    }
+
+    /**
+     * Removes an id from a set; the change is persisted in the background.
+     *
+     * @return {@code true} if the set contained the id
+     */
+    boolean remove(String set, String id) {
+        synchronized (lock) {
+            if (!set(set).remove(id)) return false;
+            enqueue('-', set, id);
+            return true;
+        }
+    }
+
+    /**
+     * Persists queued changes now instead of after the debounce delay, e.g. when the app moves
+     * to the background.
+     */
+    void flushSoon() {
+        writer.execute(this::flush);
+    }
+
+    /** Persists queued changes and waits until they are written; used by tests. */
+    void flushAndWait() throws InterruptedException, ExecutionException {
+        writer.submit(this::flush).get();
+    }
+
+    private Set<String> set(String name) {
+        Set<String> set = sets.get(name);
+        if (set == null) {
+            Set<String> created = Collections.newSetFromMap(new ConcurrentHashMap<>());
+            set = sets.putIfAbsent(name, created);
+            if (set == null) set = created;
+        }
+        return set;
+    }
+
+    /** Must hold {@link #lock} */
+    private void enqueue(char op, String set, String id) {
+        pending.add(op + escape(set) + '\t' + escape(id) + '\n');
+        if (!flushScheduled) {
+            flushScheduled = true;
+            writer.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Appends queued lines to the journal, compacting it when it grew too large; writer thread */
+    private void flush() {
+        List<String> lines;
+        synchronized (lock) {
+            flushScheduled = false;
+            if (pending.isEmpty()) return;
+            lines = pending;
+            pending = new ArrayList<>();
+        }
+        if (journalLines + lines.size() > liveEntries() * 2 + COMPACTION_SLACK) {
+            compact();
+            return;
+        }
+        StringBuilder batch = new StringBuilder();
+        for (String line : lines) {
+            batch.append(line);
+        }
+        try (FileOutputStream out = new FileOutputStream(journal, true)) {
+            out.write(batch.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+            journalLines += lines.size();
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Failed to append to the journal; compacting instead", e);
+            compact();
+        }
+    }
+
+    /** Rewrites the journal as one line per live entry; writer thread (or constructor) */
+    private void compact() {
+        StringBuilder snapshot = new StringBuilder();
+        int lines = 0;
+        synchronized (lock) {
+            // Queued lines are covered by the snapshot
+            pending.clear();
+            for (Map.Entry<String, Set<String>> entry : sets.entrySet()) {
+                String set = escape(entry.getKey());
+                for (String id : entry.getValue()) {
+                    snapshot.append('+').append(set).append('\t').append(escape(id)).append('\n');
+                    lines++;
+                }
+            }
+        }
+        File tmp = new File(journal.getPath() + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(tmp)) {
+                out.write(snapshot.toString().getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+            }
+            if (!tmp.renameTo(journal)) {
+                throw new IOException("rename failed");
+            }
+            journalLines = lines;
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Failed to compact the journal", e);
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+        }
+    }
+
+    private int liveEntries() {
+        int count = 0;
+        for (Set<String> set : sets.values()) {
+            count += set.size();
+        }
+        return count;
+    }
+
+    /** Replays the journal into memory; constructor only */
+    private void load() {
+        String text;
+        try (InputStream in = new FileInputStream(journal)) {
+            text = new String(readAll(in), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Failed to read the journal", e);
+            return;
+        }
+        journalLines = replay(text);
+        if (!text.isEmpty() && text.charAt(text.length() - 1) != '\n') {
+            // Appending after the cut-off line would join it with the next one
+            compact();
+        }
+    }
+
+    /** Applies the journal lines in {@code text} to the sets; returns the number of lines applied */
+    private int replay(String text) {
+        int lines = 0;
+        int start = 0;
+        int end;
+        // A line without its newline was cut off by a crash mid-write and is ignored
+        while ((end = text.indexOf('\n', start)) >= 0) {
+            String line = text.substring(start, end);
+            start = end + 1;
+            int tab = line.indexOf('\t');
+            if (line.length() < 2 || tab < 0) continue;
+            String set = unescape(line.substring(1, tab));
+            String id = unescape(line.substring(tab + 1));
+            if (line.charAt(0) == '+') {
+                set(set).add(id);
+            } else if (line.charAt(0) == '-') {
+                set(set).remove(id);
+            }
+            lines++;
+        }
+        return lines;
+    }
+
+    private void migrate(SharedPreferences prefs, String... keys) {
+        for (String key : keys) {
+            Set<String> legacy = prefs.getStringSet(key, null);
+            if (legacy != null) {
+                set(key).addAll(legacy);
+            }
+        }
+        compact();
+        Log.d(TAG, "📦 Migrated " + liveEntries() + " entries from preferences");
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    // Ids are Firestore document ids, but tabs, newlines and backslashes are escaped to be safe
+    private static String escape(String value) {
+        if (value.indexOf('\\') < 0 && value.indexOf('\t') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                out.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
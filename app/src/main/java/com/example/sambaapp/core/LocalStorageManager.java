@@ -2,7 +2,8 @@
  * {@code LocalStorageManager} is a utility class responsible for managing local user-specific data
  * using {@link SharedPreferences}. It stores and retrieves:
  * <ul>
- *     <li>Favorite lessons (liked by the user)</li>
+ *     <li>Favorite lessons (liked by the user), per user; see
+ *         {@link com.example.sambaapp.user.FavoritesEngine}</li>
  *     <li>Created lessons (lessons added by the user)</li>
  *     <li>Watched lessons (lessons the user has viewed)</li>
  * </ul>
@@ -10,11 +11,16 @@
  * <p>This class ensures data persistence across app launches and is used
  * to provide a personalized experience for each user.</p>
  *
+ * <p>The sets live in memory in a process-wide {@link JournaledSetStore}, loaded once: queries
+ * copy nothing and changes are persisted in the background, batched into an append-only journal
+ * (migrated from the {@link SharedPreferences} string sets used before). Creating an instance is
+ * cheap. Returned sets are live, unmodifiable views; copy them to keep a snapshot.</p>
+ *
  * <p>Example usage:</p>
  * <pre>{@code
  * LocalStorageManager storage = new LocalStorageManager(context);
- * storage.addFavorite("lesson123");
- * boolean isFav = storage.isFavorite("lesson123");
+ * storage.setWatched("lesson123", true);
+ * boolean watched = storage.isWatched("lesson123");
  * }</pre>
  *
  * @author Elinor
@@ -24,7 +30,7 @@ package com.example.sambaapp.core;
 import android.content.Context;
 import android.content.SharedPreferences;
 
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.Set;
 
 
@@ -33,48 +39,136 @@ public class LocalStorageManager {
     private static final String KEY_FAVORITES = "favorite_lessons";
     private static final String KEY_CREATED = "created_lessons";
     private static final String KEY_WATCHED = "watched_lessons";
+    /** Names of one-time imports already done */
+    private static final String KEY_MIGRATIONS = "migrations";
 
-    private final SharedPreferences prefs;
+    private final JournaledSetStore store;
 
     public LocalStorageManager(Context context) {
-        prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        store = JournaledSetStore.getInstance(context, PREF_NAME, KEY_FAVORITES, KEY_CREATED, KEY_WATCHED);
     }
 
-    // Favorite lessons
-    public void addFavorite(String lessonId) {
-        Set<String> favs = getFavorites();
-        favs.add(lessonId);
-        prefs.edit().putStringSet(KEY_FAVORITES, favs).apply();
+    // Favorite lessons, per user; written through FavoritesEngine
+
+    /**
+     * @param uid      The user's id
+     * @param lessonId The ID of the lesson to check
+     * @return {@code true} if the lesson is one of the user's favorites
+     */
+    public boolean isFavorite(String uid, String lessonId) {
+        return store.contains(favoritesKey(uid), lessonId);
     }
 
     /**
-     * Removes a lesson from the favorites list.
+     * Marks or unmarks a lesson as one of the user's favorites.
      *
-     * @param lessonId The ID of the lesson to remove
+     * @param uid      The user's id
+     * @param lessonId The ID of the lesson
+     * @param favorite Whether the lesson is a favorite
+     */
+    public void setFavorite(String uid, String lessonId, boolean favorite) {
+        if (favorite) {
+            store.add(favoritesKey(uid), lessonId);
+        } else {
+            store.remove(favoritesKey(uid), lessonId);
+        }
+    }
+
+    /**
+     * @param uid The user's id
+     * @return A live, unmodifiable view of the user's favorite lesson IDs
      */
-    public void removeFavorite(String lessonId) {
-        Set<String> favs = getFavorites();
-        favs.remove(lessonId);
-        prefs.edit().putStringSet(KEY_FAVORITES, favs).apply();
+    public Set<String> getFavorites(String uid) {
+        return store.view(favoritesKey(uid));
     }
 
     /**
-     * Retrieves all lesson IDs marked as favorites.
+     * Imports favorites kept elsewhere before, once per user.
      *
-     * @return A set of favorite lesson IDs
+     * @param uid    The user's id
+     * @param legacy The user's favorite lesson IDs from the old store
+     * @return {@code true} if they were imported now, {@code false} if already done earlier
      */
-    public Set<String> getFavorites() {
-        return new HashSet<>(prefs.getStringSet(KEY_FAVORITES, new HashSet<>()));
+    public boolean importFavoritesOnce(String uid, Set<String> legacy) {
+        if (store.contains(KEY_MIGRATIONS, favoritesKey(uid))) return false;
+        for (String lessonId : legacy) {
+            store.add(favoritesKey(uid), lessonId);
+        }
+        store.add(KEY_MIGRATIONS, favoritesKey(uid));
+        return true;
     }
 
     /**
-     * Checks if a specific lesson is marked as favorite.
+     * Moves the favorites saved before favorites were kept per user into the user's favorites.
+     * They are moved, not copied, so only the first user signing in on this device gets them.
      *
-     * @param lessonId The ID of the lesson to check
-     * @return {@code true} if the lesson is a favorite, {@code false} otherwise
+     * @param uid The signed-in user's id
+     * @return The number of favorites moved; 0 once they were claimed
+     */
+    public int claimUnownedFavorites(String uid) {
+        int claimed = 0;
+        for (String lessonId : new ArrayList<>(store.view(KEY_FAVORITES))) {
+            store.add(favoritesKey(uid), lessonId);
+            store.remove(KEY_FAVORITES, lessonId);
+            claimed++;
+        }
+        return claimed;
+    }
+
+    /**
+     * @param uid The user's id
+     * @return Whether the user's favorites were synced with the server on this device before
+     */
+    public boolean hasSyncedFavorites(String uid) {
+        return store.contains(KEY_MIGRATIONS, syncedKey(uid));
+    }
+
+    /**
+     * @param uid The user's id
+     * @return A live, unmodifiable view of the user's favorite lesson IDs as last seen on the server
      */
-    public boolean isFavorite(String lessonId) {
-        return getFavorites().contains(lessonId);
+    public Set<String> getSyncedFavorites(String uid) {
+        return store.view(syncedKey(uid));
+    }
+
+    /**
+     * Records the user's favorite lesson IDs as seen on the server; only the difference to the
+     * previous record is written.
+     *
+     * @param uid       The user's id
+     * @param remoteIds The favorite lesson IDs on the server
+     */
+    public void setSyncedFavorites(String uid, Set<String> remoteIds) {
+        for (String lessonId : new ArrayList<>(store.view(syncedKey(uid)))) {
+            if (!remoteIds.contains(lessonId)) store.remove(syncedKey(uid), lessonId);
+        }
+        for (String lessonId : remoteIds) {
+            store.add(syncedKey(uid), lessonId);
+        }
+        store.add(KEY_MIGRATIONS, syncedKey(uid));
+    }
+
+    /**
+     * Records one change of the user's favorites seen on the server.
+     *
+     * @param uid      The user's id
+     * @param lessonId The ID of the lesson
+     * @param favorite Whether the lesson is a favorite on the server
+     */
+    public void setSyncedFavorite(String uid, String lessonId, boolean favorite) {
+        if (favorite) {
+            store.add(syncedKey(uid), lessonId);
+        } else {
+            store.remove(syncedKey(uid), lessonId);
+        }
+    }
+
+    private static String favoritesKey(String uid) {
+        return KEY_FAVORITES + "_" + uid;
+    }
+
+    private static String syncedKey(String uid) {
+        return KEY_FAVORITES + "_synced_" + uid;
     }
 
     // --------------------------
@@ -87,37 +181,34 @@ public class LocalStorageManager {
      * @param lessonId The ID of the lesson the user created
      */
     public void addCreated(String lessonId) {
-        Set<String> created = getCreatedLessons();
-        created.add(lessonId);
-        prefs.edit().putStringSet(KEY_CREATED, created).apply();
+        store.add(KEY_CREATED, lessonId);
     }
 
     /**
      * Retrieves all lesson IDs created by the user.
      *
-     * @return A set of lesson IDs created by the user
+     * @return A live, unmodifiable view of the lesson IDs created by the user
      */
     public Set<String> getCreatedLessons() {
-        return new HashSet<>(prefs.getStringSet(KEY_CREATED, new HashSet<>()));
+        return store.view(KEY_CREATED);
     }
     // Watched lessons
     public void setWatched(String lessonId, boolean watched) {
-        Set<String> watchedSet = getWatchedLessons();
         if (watched) {
-            watchedSet.add(lessonId);
+            store.add(KEY_WATCHED, lessonId);
         } else {
-            watchedSet.remove(lessonId);
+            store.remove(KEY_WATCHED, lessonId);
         }
-        prefs.edit().putStringSet(KEY_WATCHED, watchedSet).apply();
     }
 
 
     public boolean isWatched(String lessonId) {
-        return getWatchedLessons().contains(lessonId);
+        return store.contains(KEY_WATCHED, lessonId);
     }
 
+    /** @return A live, unmodifiable view of the watched lesson IDs */
     public Set<String> getWatchedLessons() {
-        return new HashSet<>(prefs.getStringSet(KEY_WATCHED, new HashSet<>()));
+        return store.view(KEY_WATCHED);
     }
 
     /**
@@ -127,6 +218,14 @@ public class LocalStorageManager {
      * @return {@code true} if the lesson was created by the user, {@code false} otherwise
      */
     public boolean isCreated(String lessonId) {
-        return getCreatedLessons().contains(lessonId);
+        return store.contains(KEY_CREATED, lessonId);
+    }
+
+    /**
+     * Writes pending changes to disk now rather than after the usual short delay,
+     * e.g. when the app goes to the background.
+     */
+    public void flush() {
+        store.flushSoon();
     }
 }
@@ -23,6 +23,9 @@ package com.example.sambaapp.core;
 import android.app.Application;
 import android.content.Context;
 
+import com.bumptech.glide.Glide;
+import com.example.sambaapp.user.UserProfileStore;
+
 public class MyApp extends Application {
     /**
      * Static reference to application context.
@@ -36,6 +39,14 @@ public class MyApp extends Application {
     public void onCreate() {
         super.onCreate();
         context = getApplicationContext();
+        // Load the preferences, the local lesson sets and the signed-in user's profile before the
+        // first screen asks for them, and send the writes still queued from the last run
+        AppPrefs.preload(this);
+        new Thread(() -> {
+            new LocalStorageManager(this);
+            WriteOutbox.getInstance(this);
+            UserProfileStore.getInstance(this);
+        }, "lesson-sets-preload").start();
     }
     /**
      * Returns the application-wide context.
@@ -45,4 +56,26 @@ public class MyApp extends Application {
     public static Context getContext() {
         return context;
     }
+
+    /**
+     * Persists pending local lesson state as soon as the UI is hidden, since the process may be
+     * killed while in the background.
+     *
+     * <p>Glide trims its own caches from {@code TRIM_MEMORY_RUNNING_CRITICAL} and when the UI is
+     * hidden; while the app is visible and the system is already running low, Glide's memory
+     * cache and bitmap pool are halved here, before the system starts killing processes.</p>
+     *
+     * @param level The memory trim level
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level == TRIM_MEMORY_RUNNING_LOW) {
+            // Same as Glide's own trim when hidden: keep half of the memory cache and pool
+            Glide.get(this).trimMemory(TRIM_MEMORY_UI_HIDDEN);
+        }
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            new LocalStorageManager(this).flush();
+        }
+    }
 }
@@ -0,0 +1,78 @@
+/**
+ * {@code SambaGlideModule} is the app's Glide configuration, picked up by the Glide annotation
+ * processor at build time.
+ *
+ * <p>Glide's memory cache and bitmap pool are sized from the device's memory class. On low-RAM
+ * devices (about 2 GB and below, or a heap of {@link #LOW_MEMORY_CLASS_MB} MB or less) they take a
+ * smaller share of the heap, so decoded images do not push the lesson lists into frequent
+ * collections. The bitmap pool still keeps two screens of bitmaps, since the circle-cropped
+ * avatars are software bitmaps and are reused from the pool instead of being reallocated.</p>
+ *
+ * <p>Images are decoded as {@code RGB_565} by default, half the memory of {@code ARGB_8888}.
+ * Glide falls back to {@code ARGB_8888} for images that have transparency, and circle-cropped
+ * avatars keep their transparent corners.</p>
+ *
+ * <p>Decoded images are kept on disk in their own size-bounded {@value #DISK_CACHE_DIR} cache
+ * directory.</p>
+ *
+ * <p>Glide trims its caches itself when the app is hidden; {@link MyApp#onTrimMemory(int)} trims
+ * them earlier, while the app is still visible and the system is running low.</p>
+ */
+package com.example.sambaapp.core;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+
+@GlideModule
+public final class SambaGlideModule extends AppGlideModule {
+
+    private static final String TAG = "GLIDE";
+    /** Heap size (MB) at or below which the device is treated as low-memory */
+    static final int LOW_MEMORY_CLASS_MB = 192;
+    static final String DISK_CACHE_DIR = "lesson_images";
+    private static final long DISK_CACHE_BYTES = 32L * 1024 * 1024;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        ActivityManager activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        boolean lowMemory = isLowMemory(activityManager);
+
+        MemorySizeCalculator sizes = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(lowMemory ? 1 : 2)
+                .setBitmapPoolScreens(2)
+                // Largest share of the heap the memory cache and pool may take together
+                .setMaxSizeMultiplier(lowMemory ? 0.2f : 0.33f)
+                .setLowMemoryMaxSizeMultiplier(0.2f)
+                .build();
+        builder.setMemorySizeCalculator(sizes);
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_BYTES));
+        builder.setDefaultRequestOptions(new RequestOptions().format(DecodeFormat.PREFER_RGB_565));
+
+        Log.d(TAG, "🧠 memoryClass=" + activityManager.getMemoryClass() + " MB, lowMemory=" + lowMemory
+                + ", memoryCache=" + sizes.getMemoryCacheSize() / 1024 + " KB"
+                + ", bitmapPool=" + sizes.getBitmapPoolSize() / 1024 + " KB");
+    }
+
+    /** The module configures everything here; no manifest modules need to be parsed. */
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+
+    static boolean isLowMemory(ActivityManager activityManager) {
+        return activityManager.isLowRamDevice()
+                || activityManager.getMemoryClass() <= LOW_MEMORY_CLASS_MB;
+    }
+}
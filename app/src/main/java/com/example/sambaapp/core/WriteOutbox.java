@@ -0,0 +1,745 @@
+/**
+ * {@code WriteOutbox} is a durable queue for the app's Firestore writes.
+ *
+ * <p>A write is recorded in the outbox file before it is sent, so writes made offline, or just
+ * before the process is killed, are sent on the next start. The file is read on the outbox's own
+ * thread, never on the caller's; writes queued before it was read are applied on top of the
+ * restored ones, and {@link #hasPending} waits for it. Queued writes to the same document
+ * are coalesced:</p>
+ * <ul>
+ *     <li>Field changes ({@link #update}, {@link #merge}) are merged into the queued write, so
+ *         repeated edits of a field keep only the last value.</li>
+ *     <li>{@link #set} and {@link #delete} replace whatever was queued for the document.</li>
+ *     <li>{@link #toggle} is for documents whose existence is the data (e.g. favorites): toggling
+ *         a document back before it was sent cancels both writes.</li>
+ * </ul>
+ *
+ * <p>Queued writes are sent together in one {@link WriteBatch} (at most {@value #MAX_BATCH_WRITES}
+ * writes) after {@link #FLUSH_WINDOW_MS}, and only while a network is available; a write to a
+ * document that is still in flight waits for it. A batch failing with a transient error is
+ * retried with jittered exponential backoff; the backoff is reset when connectivity returns.
+ * A write Firestore rejects (e.g. permission denied) is isolated in a batch of its own and
+ * dropped, failing its task.</p>
+ *
+ * <p>A queued write reaches Firestore, and so its local cache, only when it is sent. Writes that
+ * must be visible to reads right away, such as the onboarding flags the start screen routes on,
+ * go to Firestore directly instead: its own offline queue applies them to local reads at once.</p>
+ *
+ * <p>{@link #getMetrics()} publishes the queue depth and the flush latency (time from the first
+ * queued change to the confirmed commit).</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * WriteOutbox.getInstance(context).update("users/" + uid, fields)
+ *         .addOnFailureListener(e -> Log.e(TAG, "Rejected", e));
+ * }</pre>
+ */
+package com.example.sambaapp.core;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public final class WriteOutbox {
+
+    private static final String TAG = "WRITE_OUTBOX";
+    private static final String OUTBOX_FILE = "write_outbox.json";
+    /** How long writes are collected before they are sent in one batch */
+    private static final long FLUSH_WINDOW_MS = 2_000;
+    /** Firestore allows at most 500 writes per batch */
+    private static final int MAX_BATCH_WRITES = 500;
+    /** First retry delay; doubled per failed attempt up to {@link #MAX_BACKOFF_MS} */
+    static final long BASE_BACKOFF_MS = 1_000;
+    static final long MAX_BACKOFF_MS = 5 * 60_000;
+
+    private static volatile WriteOutbox instance;
+
+    enum Type { SET, MERGE, UPDATE, DELETE }
+
+    /** How the writes of a failed batch are handled */
+    enum Recovery {
+        /** A transient error: send them again after a backoff */
+        RETRY,
+        /** Firestore rejected one of several writes: send them one by one to find it */
+        ISOLATE,
+        /** Firestore rejected the only write: drop it and fail its task */
+        DROP
+    }
+
+    private final File file;
+    private final ConnectivityManager connectivity;
+    /** Sends batches, settles them and persists the queue */
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor();
+    private final MutableLiveData<Metrics> metrics = new MutableLiveData<>(Metrics.EMPTY);
+    /** Counted down once the writes persisted before are restored */
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    /** Guards every field below */
+    private final Object lock = new Object();
+    /** Writes not sent yet, by document path, in the order of their latest change */
+    private LinkedHashMap<String, Entry> queued = new LinkedHashMap<>();
+    /** Writes sent and not settled yet, by document path */
+    private final Map<String, Entry> inFlight = new HashMap<>();
+    private ScheduledFuture<?> flushTask;
+    private boolean persistScheduled;
+    /** Failed attempts in a row; drives the backoff */
+    private int attempt;
+    /** {@link SystemClock#elapsedRealtime()} before which no flush runs */
+    private long backoffUntil;
+    /** Send one write per batch, to find the write Firestore rejected */
+    private boolean isolate;
+    private long lastLatencyMs;
+    private long averageLatencyMs;
+    private int coalesced;
+    private int dropped;
+
+    private WriteOutbox(Context context) {
+        file = new File(context.getFilesDir(), OUTBOX_FILE);
+        connectivity = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        // First task of the worker, so every flush and persist runs after it
+        worker.execute(this::load);
+        connectivity.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                worker.execute(WriteOutbox.this::onConnectivityRestored);
+            }
+        });
+    }
+
+    /**
+     * Returns the process-wide outbox, restoring the queued writes on first use.
+     *
+     * @param context Any context; only the application context is used
+     * @return The outbox
+     */
+    public static WriteOutbox getInstance(Context context) {
+        WriteOutbox outbox = instance;
+        if (outbox == null) {
+            synchronized (WriteOutbox.class) {
+                outbox = instance;
+                if (outbox == null) {
+                    outbox = new WriteOutbox(context.getApplicationContext());
+                    instance = outbox;
+                }
+            }
+        }
+        return outbox;
+    }
+
+    /**
+     * Queues overwriting a document.
+     *
+     * @param path The document path, e.g. {@code lessons/abc}
+     * @param data The document's fields; strings, numbers, booleans, lists and maps only
+     * @return A task completing when the write is committed, or failing if Firestore rejects it
+     */
+    public Task<Void> set(String path, Map<String, Object> data) {
+        return enqueue(new Op(Type.SET, path, data, false));
+    }
+
+    /**
+     * Queues merging fields into a document, creating it if missing
+     * (like {@code set(data, SetOptions.merge())}).
+     */
+    public Task<Void> merge(String path, Map<String, Object> fields) {
+        return enqueue(new Op(Type.MERGE, path, fields, false));
+    }
+
+    /** Queues updating fields of an existing document. */
+    public Task<Void> update(String path, Map<String, Object> fields) {
+        return enqueue(new Op(Type.UPDATE, path, fields, false));
+    }
+
+    /** Queues deleting a document. */
+    public Task<Void> delete(String path) {
+        return enqueue(new Op(Type.DELETE, path, Collections.<String, Object>emptyMap(), false));
+    }
+
+    /**
+     * Queues creating (as an empty document) or deleting a document whose existence is the data.
+     * A toggle back to the state before a still queued toggle cancels both.
+     *
+     * @param path    The document path
+     * @param present Whether the document should exist
+     */
+    public Task<Void> toggle(String path, boolean present) {
+        return enqueue(present
+                ? new Op(Type.SET, path, Collections.<String, Object>emptyMap(), true)
+                : new Op(Type.DELETE, path, Collections.<String, Object>emptyMap(), true));
+    }
+
+    /**
+     * @param path The document path
+     * @return {@code true} if a write to the document is queued or in flight
+     */
+    public boolean hasPending(String path) {
+        awaitLoad();
+        synchronized (lock) {
+            return queued.containsKey(path) || inFlight.containsKey(path);
+        }
+    }
+
+    /** @return Queue depth and flush latency, updated after every change */
+    public LiveData<Metrics> getMetrics() {
+        return metrics;
+    }
+
+    private Task<Void> enqueue(Op op) {
+        TaskCompletionSource<Void> done = new TaskCompletionSource<>();
+        synchronized (lock) {
+            Entry older = queued.remove(op.path);
+            if (older == null) {
+                queued.put(op.path, new Entry(op, System.currentTimeMillis(), done));
+            } else {
+                coalesced++;
+                older.waiters.add(done);
+                Op combined = combine(older.op, op);
+                if (combined == null) {
+                    older.succeed();
+                } else {
+                    older.op = combined;
+                    queued.put(op.path, older);
+                }
+            }
+            persistSoon();
+            scheduleFlush(FLUSH_WINDOW_MS);
+        }
+        publishMetrics();
+        return done.getTask();
+    }
+
+    /**
+     * Combines a queued write with a newer one to the same document.
+     *
+     * @return The single equivalent write, or {@code null} if they cancel out
+     */
+    static Op combine(Op older, Op newer) {
+        if (older.toggle && newer.toggle && older.type != newer.type) return null;
+        switch (newer.type) {
+            case SET:
+            case DELETE:
+                return newer;
+            default:
+                break;
+        }
+        Map<String, Object> fields = new HashMap<>(older.data);
+        fields.putAll(newer.data);
+        switch (older.type) {
+            case SET:
+                return new Op(Type.SET, newer.path, fields, false);
+            case MERGE:
+                return new Op(Type.MERGE, newer.path, fields, false);
+            case UPDATE:
+                return new Op(newer.type, newer.path, fields, false);
+            default:
+                // Deleted, then changed: a merge recreates the document, an update would fail
+                return newer.type == Type.MERGE ? new Op(Type.SET, newer.path, newer.data, false) : older;
+        }
+    }
+
+    /** Must hold {@link #lock}; keeps an earlier pending flush and never cuts a backoff short */
+    private void scheduleFlush(long delayMs) {
+        delayMs = Math.max(delayMs, backoffUntil - SystemClock.elapsedRealtime());
+        if (flushTask != null && !flushTask.isDone()) {
+            if (flushTask.getDelay(TimeUnit.MILLISECONDS) <= delayMs) return;
+            flushTask.cancel(false);
+        }
+        flushTask = worker.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Sends the sendable queued writes in one batch; {@link #worker} only */
+    private void flush() {
+        List<Entry> batchEntries = new ArrayList<>();
+        synchronized (lock) {
+            flushTask = null;
+            if (queued.isEmpty()) return;
+            if (!isOnline()) {
+                Log.d(TAG, "📴 Offline; " + queued.size() + " writes wait for the network");
+                return;
+            }
+            int limit = isolate ? 1 : MAX_BATCH_WRITES;
+            Iterator<Map.Entry<String, Entry>> it = queued.entrySet().iterator();
+            while (it.hasNext() && batchEntries.size() < limit) {
+                Map.Entry<String, Entry> next = it.next();
+                if (inFlight.containsKey(next.getKey())) continue; // ordered after the earlier write
+                it.remove();
+                inFlight.put(next.getKey(), next.getValue());
+                batchEntries.add(next.getValue());
+            }
+        }
+        if (batchEntries.isEmpty()) return;
+
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        WriteBatch batch = db.batch();
+        for (Entry entry : batchEntries) {
+            DocumentReference doc = db.document(entry.op.path);
+            switch (entry.op.type) {
+                case SET:
+                    batch.set(doc, entry.op.data);
+                    break;
+                case MERGE:
+                    batch.set(doc, entry.op.data, SetOptions.merge());
+                    break;
+                case UPDATE:
+                    batch.update(doc, entry.op.data);
+                    break;
+                case DELETE:
+                    batch.delete(doc);
+                    break;
+            }
+        }
+        batch.commit().addOnCompleteListener(worker, task -> settle(batchEntries, task));
+        Log.d(TAG, "☁️ Sent " + batchEntries.size() + " writes");
+        publishMetrics();
+
+        synchronized (lock) {
+            // More than one batch worth of writes, or a second write isolated
+            for (String path : queued.keySet()) {
+                if (!inFlight.containsKey(path)) {
+                    scheduleFlush(0);
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Completes the writes of a committed batch, or queues them again; {@link #worker} only */
+    private void settle(List<Entry> batchEntries, Task<Void> commit) {
+        synchronized (lock) {
+            for (Entry entry : batchEntries) {
+                inFlight.remove(entry.op.path);
+            }
+            if (commit.isSuccessful()) {
+                attempt = 0;
+                backoffUntil = 0;
+                isolate = false;
+                long oldest = Long.MAX_VALUE;
+                for (Entry entry : batchEntries) {
+                    oldest = Math.min(oldest, entry.enqueuedAt);
+                    entry.succeed();
+                }
+                lastLatencyMs = Math.max(0, System.currentTimeMillis() - oldest);
+                averageLatencyMs = averageLatencyMs == 0
+                        ? lastLatencyMs : (averageLatencyMs * 7 + lastLatencyMs) / 8;
+                // Writes that waited for a document of this batch
+                if (!queued.isEmpty()) scheduleFlush(FLUSH_WINDOW_MS);
+            } else {
+                Exception error = commit.getException();
+                Recovery recovery = recoveryFor(isRetryable(error), batchEntries.size());
+                if (recovery == Recovery.DROP) {
+                    Entry rejected = batchEntries.get(0);
+                    Log.e(TAG, "❌ Write to " + rejected.op.path + " rejected; dropping it", error);
+                    dropped++;
+                    rejected.fail(error);
+                    if (!queued.isEmpty()) scheduleFlush(0);
+                } else {
+                    queued = requeue(queued, batchEntries);
+                    long delay = 0;
+                    if (recovery == Recovery.RETRY) {
+                        attempt++;
+                        delay = backoffDelay(attempt);
+                        backoffUntil = SystemClock.elapsedRealtime() + delay;
+                        Log.w(TAG, "⚠️ Batch failed (attempt " + attempt + "), retrying in " + delay + " ms", error);
+                    } else {
+                        isolate = true;
+                        Log.w(TAG, "⚠️ Batch rejected; sending its writes one by one", error);
+                    }
+                    if (flushTask != null) flushTask.cancel(false);
+                    flushTask = null;
+                    scheduleFlush(delay);
+                }
+            }
+            persistSoon();
+        }
+        publishMetrics();
+    }
+
+    /**
+     * @param retryable Whether the batch failed with a transient error
+     * @param batchSize The number of writes in the batch
+     * @return How the batch's writes are handled
+     */
+    static Recovery recoveryFor(boolean retryable, int batchSize) {
+        if (retryable) return Recovery.RETRY;
+        return batchSize == 1 ? Recovery.DROP : Recovery.ISOLATE;
+    }
+
+    /**
+     * Puts failed writes back in front of the queue, under any newer write to the same document.
+     *
+     * @param queued The writes queued meanwhile; entries combined with a failed write are removed
+     * @param failed The failed writes, in their order
+     * @return The new queue
+     */
+    static LinkedHashMap<String, Entry> requeue(LinkedHashMap<String, Entry> queued, List<Entry> failed) {
+        LinkedHashMap<String, Entry> next = new LinkedHashMap<>();
+        for (Entry entry : failed) {
+            Entry newer = queued.remove(entry.op.path);
+            if (newer == null) {
+                next.put(entry.op.path, entry);
+                continue;
+            }
+            entry.waiters.addAll(newer.waiters);
+            Op combined = combine(entry.op, newer.op);
+            if (combined == null) {
+                entry.succeed();
+            } else {
+                entry.op = combined;
+                next.put(entry.op.path, entry);
+            }
+        }
+        next.putAll(queued);
+        return next;
+    }
+
+    /** Full jitter: a random delay up to the exponential backoff cap */
+    static long backoffDelay(int attempt) {
+        return ThreadLocalRandom.current().nextLong(backoffCap(attempt) + 1);
+    }
+
+    /** @return The longest retry delay after {@code attempt} failed attempts in a row */
+    static long backoffCap(int attempt) {
+        return Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt, 20));
+    }
+
+    private static boolean isRetryable(Exception error) {
+        if (!(error instanceof FirebaseFirestoreException)) return true;
+        switch (((FirebaseFirestoreException) error).getCode()) {
+            case INVALID_ARGUMENT:
+            case NOT_FOUND:
+            case ALREADY_EXISTS:
+            case PERMISSION_DENIED:
+            case FAILED_PRECONDITION:
+            case OUT_OF_RANGE:
+            case UNIMPLEMENTED:
+            case UNAUTHENTICATED:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private void onConnectivityRestored() {
+        synchronized (lock) {
+            if (queued.isEmpty()) return;
+            attempt = 0;
+            backoffUntil = 0;
+            if (flushTask != null) flushTask.cancel(false);
+            flushTask = null;
+            Log.d(TAG, "📶 Network available; flushing " + queued.size() + " writes");
+            scheduleFlush(0);
+        }
+    }
+
+    private boolean isOnline() {
+        NetworkCapabilities caps = connectivity.getNetworkCapabilities(connectivity.getActiveNetwork());
+        return caps != null && caps.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+    }
+
+    private void publishMetrics() {
+        synchronized (lock) {
+            metrics.postValue(new Metrics(queued.size(), inFlight.size(), lastLatencyMs,
+                    averageLatencyMs, coalesced, dropped));
+        }
+    }
+
+    // --------------------------
+    // Persistence
+    // --------------------------
+
+    /** Must hold {@link #lock} */
+    private void persistSoon() {
+        if (!persistScheduled) {
+            persistScheduled = true;
+            worker.execute(this::persist);
+        }
+    }
+
+    /** Writes queued and in-flight writes to a temporary file that replaces the outbox file */
+    private void persist() {
+        JSONArray json = new JSONArray();
+        synchronized (lock) {
+            persistScheduled = false;
+            try {
+                for (Entry entry : inFlight.values()) {
+                    json.put(entry.toJson());
+                }
+                for (Entry entry : queued.values()) {
+                    json.put(entry.toJson());
+                }
+            } catch (JSONException e) {
+                Log.e(TAG, "❌ Failed to encode the outbox", e);
+                return;
+            }
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(tmp)) {
+                out.write(json.toString().getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+            }
+            if (!tmp.renameTo(file)) {
+                throw new IOException("rename failed");
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Failed to persist the outbox", e);
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Restores the writes persisted before, under the writes queued since the outbox was
+     * created; {@link #worker} only, as its first task.
+     */
+    private void load() {
+        List<Entry> stored = new ArrayList<>();
+        try {
+            if (file.exists()) {
+                try (InputStream in = new FileInputStream(file)) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        bytes.write(buffer, 0, read);
+                    }
+                    JSONArray json = new JSONArray(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+                    for (int i = 0; i < json.length(); i++) {
+                        stored.add(Entry.fromJson(json.getJSONObject(i)));
+                    }
+                }
+            }
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "❌ Failed to restore the outbox", e);
+        }
+        synchronized (lock) {
+            LinkedHashMap<String, Entry> restored = restore(stored);
+            if (!restored.isEmpty()) {
+                Log.d(TAG, "📦 Restored " + restored.size() + " queued writes");
+                queued = requeue(queued, new ArrayList<>(restored.values()));
+                scheduleFlush(0);
+            }
+        }
+        loaded.countDown();
+        publishMetrics();
+    }
+
+    /**
+     * Rebuilds the queue from the persisted writes. A document with a write in flight and a
+     * newer one queued was persisted twice, the in-flight write first; the two are combined as
+     * they would have been when queued.
+     *
+     * @param stored The persisted writes, in file order
+     * @return The queue
+     */
+    static LinkedHashMap<String, Entry> restore(List<Entry> stored) {
+        LinkedHashMap<String, Entry> restored = new LinkedHashMap<>();
+        for (Entry entry : stored) {
+            Entry older = restored.remove(entry.op.path);
+            if (older == null) {
+                restored.put(entry.op.path, entry);
+                continue;
+            }
+            Op combined = combine(older.op, entry.op);
+            if (combined != null) {
+                older.op = combined;
+                restored.put(entry.op.path, older);
+            }
+        }
+        return restored;
+    }
+
+    private void awaitLoad() {
+        if (loaded.getCount() == 0) return;
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, Object> toMap(JSONObject json) throws JSONException {
+        Map<String, Object> map = new HashMap<>();
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            map.put(key, fromJsonValue(json.get(key)));
+        }
+        return map;
+    }
+
+    private static Object fromJsonValue(Object value) throws JSONException {
+        if (value == JSONObject.NULL) return null;
+        if (value instanceof JSONObject) return toMap((JSONObject) value);
+        if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            List<Object> list = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                list.add(fromJsonValue(array.get(i)));
+            }
+            return list;
+        }
+        return value;
+    }
+
+    /** One write to one document */
+    static final class Op {
+        final Type type;
+        final String path;
+        final Map<String, Object> data;
+        /** Created through {@link #toggle}; cancels with the opposite toggle */
+        final boolean toggle;
+
+        Op(Type type, String path, Map<String, Object> data, boolean toggle) {
+            this.type = type;
+            this.path = path;
+            // Copied, since callers may keep changing their map
+            this.data = new HashMap<>(data);
+            this.toggle = toggle;
+        }
+    }
+
+    /** A queued write and the tasks of the calls coalesced into it */
+    static final class Entry {
+        Op op;
+        /** Wall-clock time of the first change, kept across restarts */
+        final long enqueuedAt;
+        final List<TaskCompletionSource<Void>> waiters = new ArrayList<>();
+
+        Entry(Op op, long enqueuedAt, TaskCompletionSource<Void> waiter) {
+            this.op = op;
+            this.enqueuedAt = enqueuedAt;
+            if (waiter != null) waiters.add(waiter);
+        }
+
+        void succeed() {
+            for (TaskCompletionSource<Void> waiter : waiters) {
+                waiter.trySetResult(null);
+            }
+        }
+
+        void fail(Exception error) {
+            Exception reason = error != null ? error : new IllegalStateException("write rejected");
+            for (TaskCompletionSource<Void> waiter : waiters) {
+                waiter.trySetException(reason);
+            }
+        }
+
+        JSONObject toJson() throws JSONException {
+            return new JSONObject()
+                    .put("path", op.path)
+                    .put("type", op.type.name())
+                    .put("toggle", op.toggle)
+                    .put("enqueuedAt", enqueuedAt)
+                    .put("data", new JSONObject(op.data));
+        }
+
+        static Entry fromJson(JSONObject json) throws JSONException {
+            Op op = new Op(Type.valueOf(json.getString("type")), json.getString("path"),
+                    toMap(json.getJSONObject("data")), json.optBoolean("toggle"));
+            return new Entry(op, json.getLong("enqueuedAt"), null);
+        }
+    }
+
+    /**
+     * Outbox statistics at one point in time.
+     */
+    public static final class Metrics {
+
+        static final Metrics EMPTY = new Metrics(0, 0, 0, 0, 0, 0);
+
+        private final int queueDepth;
+        private final int inFlight;
+        private final long lastFlushLatencyMs;
+        private final long averageFlushLatencyMs;
+        private final int coalesced;
+        private final int dropped;
+
+        Metrics(int queueDepth, int inFlight, long lastFlushLatencyMs, long averageFlushLatencyMs,
+                int coalesced, int dropped) {
+            this.queueDepth = queueDepth;
+            this.inFlight = inFlight;
+            this.lastFlushLatencyMs = lastFlushLatencyMs;
+            this.averageFlushLatencyMs = averageFlushLatencyMs;
+            this.coalesced = coalesced;
+            this.dropped = dropped;
+        }
+
+        /** @return Writes waiting to be sent */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /** @return Writes sent and not committed yet */
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        /** @return Time from the first change to the commit of the last committed batch */
+        public long getLastFlushLatencyMs() {
+            return lastFlushLatencyMs;
+        }
+
+        /** @return Moving average of {@link #getLastFlushLatencyMs()} */
+        public long getAverageFlushLatencyMs() {
+            return averageFlushLatencyMs;
+        }
+
+        /** @return Calls merged into an already queued write since start */
+        public int getCoalesced() {
+            return coalesced;
+        }
+
+        /** @return Writes Firestore rejected since start */
+        public int getDropped() {
+            return dropped;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "queued=" + queueDepth + ", inFlight=" + inFlight + ", lastLatency="
+                    + lastFlushLatencyMs + "ms, avgLatency=" + averageFlushLatencyMs
+                    + "ms, coalesced=" + coalesced + ", dropped=" + dropped;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * {@code LessonCacheHelper} is a {@link SQLiteOpenHelper} that keeps an on-device copy of the
+ * lessons last received from Firestore, keyed by lesson id and level.
+ *
+ * <p>The cache lets the lesson tabs render immediately on screen entry (and while offline),
+ * before Firestore answers. It is a pure cache: on schema changes the table is dropped and
+ * rebuilt from the next successful fetch.</p>
+ *
+ * @see LessonRepository
+ */
+package com.example.sambaapp.lessons.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.example.sambaapp.lessons.model.LessonModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class LessonCacheHelper extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "lesson_cache.db";
+    private static final int DB_VERSION = 1;
+
+    private static final String TABLE_LESSONS = "lessons";
+    private static final String COL_ID = "id";
+    private static final String COL_LEVEL = "level";
+    private static final String COL_POSITION = "position";
+    private static final String COL_TIME = "time";
+    private static final String COL_TITLE = "title";
+    private static final String COL_SUBTITLE = "subtitle";
+    private static final String COL_DESCRIPTION = "description";
+    private static final String COL_VIDEO_PATH = "video_path";
+    private static final String COL_ICON_ID = "icon_id";
+    private static final String COL_LIKES = "likes";
+    private static final String COL_MAX_PARTICIPANTS = "max_participants";
+    private static final String COL_CREATED_BY = "created_by";
+
+    LessonCacheHelper(Context context) {
+        super(context.getApplicationContext(), DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_LESSONS + " ("
+                + COL_ID + " TEXT PRIMARY KEY, "
+                + COL_LEVEL + " TEXT NOT NULL, "
+                + COL_POSITION + " INTEGER NOT NULL, "
+                + COL_TIME + " TEXT, "
+                + COL_TITLE + " TEXT, "
+                + COL_SUBTITLE + " TEXT, "
+                + COL_DESCRIPTION + " TEXT, "
+                + COL_VIDEO_PATH + " TEXT, "
+                + COL_ICON_ID + " TEXT, "
+                + COL_LIKES + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_MAX_PARTICIPANTS + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_CREATED_BY + " TEXT)");
+        db.execSQL("CREATE INDEX idx_lessons_level ON " + TABLE_LESSONS
+                + " (" + COL_LEVEL + ", " + COL_POSITION + ")");
+    }
+
+    /**
+     * The table only mirrors Firestore, so an upgrade simply drops the cached rows.
+     */
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_LESSONS);
+        onCreate(db);
+    }
+
+    @Override
+    public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        onUpgrade(db, oldVersion, newVersion);
+    }
+
+    /**
+     * Reads the cached lessons of a level in the order they were last received.
+     * Must be called off the main thread.
+     *
+     * @param level The lesson level (e.g., "Beginners")
+     * @return The cached lessons, or an empty list if nothing is cached yet
+     */
+    List<LessonModel> readLevel(String level) {
+        List<LessonModel> lessons = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query(TABLE_LESSONS, null,
+                COL_LEVEL + " = ?", new String[]{level},
+                null, null, COL_POSITION + " ASC")) {
+            int idIdx = c.getColumnIndexOrThrow(COL_ID);
+            int timeIdx = c.getColumnIndexOrThrow(COL_TIME);
+            int titleIdx = c.getColumnIndexOrThrow(COL_TITLE);
+            int subtitleIdx = c.getColumnIndexOrThrow(COL_SUBTITLE);
+            int descriptionIdx = c.getColumnIndexOrThrow(COL_DESCRIPTION);
+            int videoIdx = c.getColumnIndexOrThrow(COL_VIDEO_PATH);
+            int iconIdx = c.getColumnIndexOrThrow(COL_ICON_ID);
+            int likesIdx = c.getColumnIndexOrThrow(COL_LIKES);
+            int maxIdx = c.getColumnIndexOrThrow(COL_MAX_PARTICIPANTS);
+            int createdByIdx = c.getColumnIndexOrThrow(COL_CREATED_BY);
+            while (c.moveToNext()) {
+                LessonModel lesson = new LessonModel(
+                        c.getString(timeIdx),
+                        c.getString(titleIdx),
+                        c.getString(subtitleIdx),
+                        c.getString(descriptionIdx),
+                        c.getString(videoIdx),
+                        c.getInt(likesIdx),
+                        c.getInt(maxIdx),
+                        false, false,
+                        c.getString(iconIdx),
+                        level
+                );
+                lesson.setId(c.getString(idIdx));
+                lesson.setVideoPath(c.getString(videoIdx));
+                lesson.setCreatedBy(c.getString(createdByIdx));
+                lessons.add(lesson);
+            }
+        }
+        return lessons;
+    }
+
+    /**
+     * Atomically replaces every cached row of a level with the given lessons.
+     * Must be called off the main thread.
+     *
+     * @param level   The lesson level being replaced
+     * @param lessons The fresh lessons, in display order
+     */
+    void replaceLevel(String level, List<LessonModel> lessons) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_LESSONS, COL_LEVEL + " = ?", new String[]{level});
+            ContentValues values = new ContentValues();
+            for (int i = 0; i < lessons.size(); i++) {
+                LessonModel lesson = lessons.get(i);
+                if (lesson.getId() == null) continue;
+                values.clear();
+                values.put(COL_ID, lesson.getId());
+                values.put(COL_LEVEL, level);
+                values.put(COL_POSITION, i);
+                values.put(COL_TIME, lesson.getTime());
+                values.put(COL_TITLE, lesson.getTitle());
+                values.put(COL_SUBTITLE, lesson.getSubtitle());
+                values.put(COL_DESCRIPTION, lesson.getDescription());
+                values.put(COL_VIDEO_PATH, lesson.getVideoPath());
+                values.put(COL_ICON_ID, lesson.getIconId());
+                values.put(COL_LIKES, lesson.getRegistered());
+                values.put(COL_MAX_PARTICIPANTS, lesson.getCapacity());
+                values.put(COL_CREATED_BY, lesson.getCreatedBy());
+                db.insertWithOnConflict(TABLE_LESSONS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+}
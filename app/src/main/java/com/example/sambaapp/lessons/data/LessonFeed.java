@@ -0,0 +1,345 @@
+/**
+ * {@code LessonFeed} serves several lesson levels from one real-time query plus cursor-based pages.
+ * It reads the compact lesson summaries, not the full lesson documents.
+ *
+ * <p>Lessons are ordered by document id (Firestore's default order, so no composite index is
+ * needed) and split in two parts per level:</p>
+ * <ul>
+ *     <li><b>Live window</b> – a single snapshot listener on
+ *         {@code whereIn("level", levels).orderBy(documentId).limit(PAGE_SIZE * levels)}.
+ *         Deltas are applied in place and bucketed by level.</li>
+ *     <li><b>Pages</b> – further lessons of one level, fetched on demand with
+ *         {@code whereEqualTo("level", level).orderBy(documentId).startAfter(cursor).limit(PAGE_SIZE)}
+ *         when the list nears its end ({@link #loadNextPage(String)}), and dropped again when the
+ *         user scrolls far away from them ({@link #trim(String, int)}).</li>
+ * </ul>
+ *
+ * <p>The live window is shared, so one level may hold only a few of its rows, or none, even though
+ * it has more lessons. Such a level would never show a row close to its end to request the next
+ * page, so the feed fills it itself: whenever a level has fewer than {@link #PAGE_SIZE} rows and is
+ * not exhausted, its next page is loaded right away ({@link #fill(String)}).</p>
+ *
+ * <p>Every document with an id up to the last one in a full live window is part of that window,
+ * which is what makes the per-level cursors exact. A document reported as REMOVED with an id past
+ * the window's end was pushed out by a new document rather than deleted, so it is kept as paged data.</p>
+ *
+ * <p>Public methods may be called from any thread. All feed state is confined to the repository's
+ * background executor: snapshot and query callbacks are delivered there, so documents are mapped
+ * off the main thread, and calls from the UI are handed over to it.</p>
+ *
+ * @see LessonRepository#openFeed(List, Map)
+ */
+package com.example.sambaapp.lessons.data;
+
+import android.util.Log;
+
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.sambaapp.core.AppLog;
+import com.example.sambaapp.lessons.model.LessonModel;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+public class LessonFeed {
+
+    private static final String TAG = "LESSON_FEED";
+
+    /** Number of lessons fetched per page (and per level in the live window) */
+    public static final int PAGE_SIZE = 20;
+
+    private final LessonRepository repository;
+    /** Single-threaded executor that owns all mutable state below */
+    private final Executor executor;
+    private final CollectionReference lessons;
+    private final List<String> levels;
+    private final Map<String, ? extends MutableLiveData<List<LessonModel>>> targets;
+    private final long windowLimit;
+
+    /** Mirror of the live window, in query order */
+    private final List<LessonModel> window = new ArrayList<>();
+    /** Paged lessons beyond the live window, per level */
+    private final Map<String, LevelPages> pages = new HashMap<>();
+    private ListenerRegistration registration;
+    /** Id of the last document of a full live window; {@code null} while the window holds everything */
+    private String windowEndId;
+    private boolean windowReceived;
+
+    /** Paged state of a single level */
+    private static class LevelPages {
+        /** Lessons past the live window, ascending by id */
+        final List<LessonModel> tail = new ArrayList<>();
+        boolean loading;
+        boolean endReached;
+    }
+
+    LessonFeed(LessonRepository repository, Executor executor, FirebaseFirestore db, List<String> levels,
+               Map<String, ? extends MutableLiveData<List<LessonModel>>> targets) {
+        this.repository = repository;
+        this.executor = executor;
+        this.lessons = db.collection(LessonRepository.COLLECTION_SUMMARIES);
+        this.levels = levels;
+        this.targets = targets;
+        this.windowLimit = (long) PAGE_SIZE * levels.size();
+        for (String level : levels) {
+            pages.put(level, new LevelPages());
+        }
+    }
+
+    /**
+     * Attaches the live-window listener. Paged lessons loaded earlier are kept, so stopping and
+     * starting the feed again does not lose the user's place in the list.
+     */
+    public void start() {
+        executor.execute(() -> {
+            if (registration != null) return;
+            AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "👂 Listening to lessons for levels: " + levels);
+            window.clear();
+            registration = lessons
+                    .whereIn("level", levels)
+                    .orderBy(FieldPath.documentId())
+                    .limit(windowLimit)
+                    .addSnapshotListener(executor, this::onWindowSnapshot);
+        });
+    }
+
+    /**
+     * Detaches the live-window listener.
+     */
+    public void stop() {
+        executor.execute(() -> {
+            if (registration != null) {
+                Log.d(TAG, "🔕 Detaching lesson listener");
+                registration.remove();
+                registration = null;
+            }
+        });
+    }
+
+    private void onWindowSnapshot(QuerySnapshot snapshot, FirebaseFirestoreException e) {
+        if (e != null) {
+            Log.e(TAG, "❌ Lesson listener failed, keeping current lists: " + e.getMessage());
+            for (String level : levels) {
+                repository.onLoadFailed(level, targets.get(level));
+            }
+            return;
+        }
+        if (snapshot == null) return;
+        windowReceived = true;
+
+        List<DocumentSnapshot> docs = snapshot.getDocuments();
+        windowEndId = docs.size() >= windowLimit ? docs.get(docs.size() - 1).getId() : null;
+
+        for (DocumentChange change : snapshot.getDocumentChanges()) {
+            if (change.getType() == DocumentChange.Type.REMOVED && windowEndId != null
+                    && change.getDocument().getId().compareTo(windowEndId) > 0) {
+                // Pushed out of the window by a newer document, not deleted: keep it as paged data
+                LessonModel evicted = window.get(change.getOldIndex());
+                LevelPages levelPages = pages.get(evicted.getLevel());
+                if (levelPages != null) insertSorted(levelPages.tail, evicted);
+            } else if (change.getType() == DocumentChange.Type.REMOVED) {
+                LessonStore.getInstance().remove(change.getDocument().getId());
+            }
+            if (change.getType() != DocumentChange.Type.ADDED) {
+                repository.evictDetails(change.getDocument().getId());
+            }
+            LessonRepository.applyChange(window, change);
+        }
+
+        for (LevelPages levelPages : pages.values()) {
+            if (windowEndId == null) {
+                // The window holds every lesson of every level
+                levelPages.tail.clear();
+                levelPages.endReached = true;
+            } else {
+                // Anything at or before the window end is live; a missing one was deleted
+                for (int i = levelPages.tail.size() - 1; i >= 0; i--) {
+                    if (levelPages.tail.get(i).getId().compareTo(windowEndId) <= 0) {
+                        levelPages.tail.remove(i);
+                    }
+                }
+            }
+        }
+        for (String level : levels) {
+            publish(level);
+            fill(level);
+        }
+    }
+
+    /**
+     * Fetches the next page of a level after its last loaded lesson. Does nothing while a page is
+     * already loading, before the live window arrived, or once the level is exhausted.
+     *
+     * @param level The lesson level to extend
+     */
+    public void loadNextPage(String level) {
+        executor.execute(() -> loadNextPageInternal(level));
+    }
+
+    private void loadNextPageInternal(String level) {
+        LevelPages levelPages = pages.get(level);
+        if (levelPages == null || levelPages.loading || levelPages.endReached || !windowReceived) return;
+
+        String cursor = levelPages.tail.isEmpty()
+                ? windowEndId
+                : levelPages.tail.get(levelPages.tail.size() - 1).getId();
+        if (cursor == null) {
+            levelPages.endReached = true;
+            return;
+        }
+
+        AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "📄 Loading next page for level: " + level + " after " + cursor);
+        levelPages.loading = true;
+        lessons.whereEqualTo("level", level)
+                .orderBy(FieldPath.documentId())
+                .startAfter(cursor)
+                .limit(PAGE_SIZE)
+                .get()
+                .addOnSuccessListener(executor, querySnapshot -> {
+                    levelPages.loading = false;
+                    for (DocumentSnapshot doc : querySnapshot) {
+                        if (windowEndId == null || doc.getId().compareTo(windowEndId) <= 0) continue;
+                        insertSorted(levelPages.tail, LessonMapper.fromDocument(doc));
+                    }
+                    if (querySnapshot.size() < PAGE_SIZE) {
+                        levelPages.endReached = true;
+                    }
+                    publish(level);
+                    fill(level);
+                })
+                .addOnFailureListener(executor, e -> {
+                    levelPages.loading = false;
+                    Log.e(TAG, "❌ Failed to load page for level " + level + ": " + e.getMessage());
+                });
+    }
+
+    /**
+     * Loads the next page of a level that has fewer than {@link #PAGE_SIZE} rows, so a level
+     * crowded out of the live window does not stay empty until the user scrolls. Each loaded page
+     * calls this again, until the level has a page of rows or is exhausted.
+     */
+    private void fill(String level) {
+        LevelPages levelPages = pages.get(level);
+        if (levelPages == null || levelPages.endReached || windowEndId == null) return;
+        if (countLive(level) + levelPages.tail.size() < PAGE_SIZE) {
+            loadNextPageInternal(level);
+        }
+    }
+
+    /**
+     * Re-reads a level's paged lessons from the server. The live window is kept current by its
+     * listener, so a level without loaded pages needs no query at all. A refresh arriving while
+     * the level is already loading joins that load, and refreshes closer together than the
+     * repository's minimum interval are skipped.
+     *
+     * @param level The lesson level to refresh
+     */
+    public void refresh(String level) {
+        executor.execute(() -> refreshInternal(level));
+    }
+
+    private void refreshInternal(String level) {
+        LevelPages levelPages = pages.get(level);
+        if (levelPages == null || levelPages.tail.isEmpty() || windowEndId == null) return;
+        if (levelPages.loading) {
+            repository.onRefreshJoined(level);
+            return;
+        }
+        if (!repository.tryStartRefresh(level)) return;
+
+        int loaded = levelPages.tail.size();
+        AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "🔄 Refreshing " + loaded + " paged lessons for level: " + level);
+        levelPages.loading = true;
+        lessons.whereEqualTo("level", level)
+                .orderBy(FieldPath.documentId())
+                .startAfter(windowEndId)
+                .limit(loaded)
+                .get(Source.SERVER)
+                .addOnSuccessListener(executor, querySnapshot -> {
+                    levelPages.loading = false;
+                    levelPages.tail.clear();
+                    for (DocumentSnapshot doc : querySnapshot) {
+                        if (windowEndId == null || doc.getId().compareTo(windowEndId) <= 0) continue;
+                        insertSorted(levelPages.tail, LessonMapper.fromDocument(doc));
+                    }
+                    levelPages.endReached = querySnapshot.size() < loaded;
+                    publish(level);
+                })
+                .addOnFailureListener(executor, e -> {
+                    levelPages.loading = false;
+                    Log.e(TAG, "❌ Failed to refresh pages for level " + level + ": " + e.getMessage());
+                });
+    }
+
+    /**
+     * Drops paged lessons of a level beyond {@code keepCount} rows to keep memory bounded.
+     * Live-window lessons are never dropped. Dropped pages are fetched again on demand.
+     *
+     * @param level     The lesson level to trim
+     * @param keepCount Number of rows (from the top of the list) to keep
+     */
+    public void trim(String level, int keepCount) {
+        executor.execute(() -> trimInternal(level, keepCount));
+    }
+
+    private void trimInternal(String level, int keepCount) {
+        LevelPages levelPages = pages.get(level);
+        if (levelPages == null || levelPages.loading) return;
+
+        int keepTail = Math.max(0, keepCount - countLive(level));
+        if (levelPages.tail.size() <= keepTail) return;
+
+        int dropping = levelPages.tail.size() - keepTail;
+        AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "✂ Dropping " + dropping + " paged lessons for level: " + level);
+        levelPages.tail.subList(keepTail, levelPages.tail.size()).clear();
+        levelPages.endReached = false;
+        publish(level);
+    }
+
+    /** @return How many lessons of a level are in the live window */
+    private int countLive(String level) {
+        int live = 0;
+        for (LessonModel lesson : window) {
+            if (level.equals(lesson.getLevel())) live++;
+        }
+        return live;
+    }
+
+    /**
+     * Publishes a level's live lessons followed by its paged lessons.
+     */
+    private void publish(String level) {
+        List<LessonModel> merged = new ArrayList<>();
+        for (LessonModel lesson : window) {
+            if (level.equals(lesson.getLevel())) merged.add(lesson);
+        }
+        LevelPages levelPages = pages.get(level);
+        if (levelPages != null) merged.addAll(levelPages.tail);
+        repository.onFreshLessons(level, merged, targets.get(level));
+    }
+
+    /**
+     * Inserts {@code lesson} into a list kept ascending by id, replacing an entry with the same id.
+     */
+    private static void insertSorted(List<LessonModel> sorted, LessonModel lesson) {
+        int i = sorted.size();
+        while (i > 0 && sorted.get(i - 1).getId().compareTo(lesson.getId()) > 0) i--;
+        if (i > 0 && sorted.get(i - 1).getId().equals(lesson.getId())) {
+            sorted.set(i - 1, lesson);
+        } else {
+            sorted.add(i, lesson);
+        }
+    }
+}
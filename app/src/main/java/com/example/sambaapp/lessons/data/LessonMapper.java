@@ -0,0 +1,135 @@
+/**
+ * {@code LessonMapper} converts Firestore lesson documents into {@link LessonModel} objects.
+ *
+ * <p>It knows the {@code lessons} document schema and reads each document's field map once,
+ * looking every field up a single time, instead of issuing a separate typed getter call (and a
+ * second one for null-checked numbers) per field. It does no logging per document.</p>
+ *
+ * <p>It maps both full lesson documents and the compact summary documents used by the lists
+ * (see {@link #toSummary(Map)}); fields a summary does not carry map to {@code null} or 0.</p>
+ *
+ * <p>Mapping is meant to run on a background thread; see {@link LessonRepository}.</p>
+ */
+package com.example.sambaapp.lessons.data;
+
+import com.example.sambaapp.lessons.model.LessonModel;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+final class LessonMapper {
+
+    // Field names of a document in the "lessons" collection
+    static final String FIELD_TIME = "time";
+    static final String FIELD_TITLE = "title";
+    static final String FIELD_SUBTITLE = "subtitle";
+    static final String FIELD_DESCRIPTION = "description";
+    static final String FIELD_VIDEO_PATH = "videoPath";
+    static final String FIELD_LIKES = "likes";
+    static final String FIELD_MAX_PARTICIPANTS = "maxParticipants";
+    static final String FIELD_ICON_ID = "iconId";
+    static final String FIELD_LEVEL = "level";
+    static final String FIELD_CREATED_BY = "createdBy";
+
+    /** Fields copied into a lesson's summary document: everything a list row displays */
+    private static final String[] SUMMARY_FIELDS = {FIELD_TITLE, FIELD_SUBTITLE, FIELD_ICON_ID, FIELD_LEVEL};
+
+    private LessonMapper() {
+    }
+
+    /**
+     * Maps a Firestore lesson document to a {@link LessonModel} in a single pass over its fields.
+     *
+     * @param doc A document from the {@code lessons} collection
+     * @return The mapped lesson, with its id set to the document id
+     */
+    static LessonModel fromDocument(DocumentSnapshot doc) {
+        Map<String, Object> data = doc.getData();
+        return fromData(doc.getId(), data != null ? data : Collections.<String, Object>emptyMap());
+    }
+
+    /**
+     * Maps lesson document data (e.g. data about to be written) to a {@link LessonModel}.
+     *
+     * @param id   The lesson's document id
+     * @param data The document's fields
+     * @return The mapped lesson
+     */
+    static LessonModel fromData(String id, Map<String, Object> data) {
+        String videoPath = asString(data.get(FIELD_VIDEO_PATH));
+        String level = asString(data.get(FIELD_LEVEL));
+        LessonModel lesson = new LessonModel(
+                asString(data.get(FIELD_TIME)),
+                asString(data.get(FIELD_TITLE)),
+                asString(data.get(FIELD_SUBTITLE)),
+                asString(data.get(FIELD_DESCRIPTION)),
+                videoPath,
+                asInt(data.get(FIELD_LIKES)),
+                asInt(data.get(FIELD_MAX_PARTICIPANTS)),
+                false, false,
+                asString(data.get(FIELD_ICON_ID)),
+                level
+        );
+        lesson.setId(id);
+        lesson.setVideoPath(videoPath);
+        lesson.setCreatedBy(asString(data.get(FIELD_CREATED_BY)));
+        return lesson;
+    }
+
+    /**
+     * Returns a new lesson equal to {@code base} with the given document fields changed.
+     * {@code base} itself is left untouched, since it may be shared through {@link LessonStore}.
+     *
+     * @param base    The lesson before the change
+     * @param changes Changed document fields, keyed by Firestore field name
+     * @return A changed copy of {@code base}
+     */
+    static LessonModel withChanges(LessonModel base, Map<String, Object> changes) {
+        String videoPath = changes.containsKey(FIELD_VIDEO_PATH)
+                ? asString(changes.get(FIELD_VIDEO_PATH)) : base.getVideoPath();
+        LessonModel lesson = new LessonModel(
+                changes.containsKey(FIELD_TIME) ? asString(changes.get(FIELD_TIME)) : base.getTime(),
+                changes.containsKey(FIELD_TITLE) ? asString(changes.get(FIELD_TITLE)) : base.getTitle(),
+                changes.containsKey(FIELD_SUBTITLE) ? asString(changes.get(FIELD_SUBTITLE)) : base.getSubtitle(),
+                changes.containsKey(FIELD_DESCRIPTION)
+                        ? asString(changes.get(FIELD_DESCRIPTION)) : base.getDescription(),
+                changes.containsKey(FIELD_VIDEO_PATH) ? videoPath : base.getVideoUri(),
+                changes.containsKey(FIELD_LIKES) ? asInt(changes.get(FIELD_LIKES)) : base.getRegistered(),
+                changes.containsKey(FIELD_MAX_PARTICIPANTS)
+                        ? asInt(changes.get(FIELD_MAX_PARTICIPANTS)) : base.getCapacity(),
+                base.isFavorite(), base.isPast(),
+                changes.containsKey(FIELD_ICON_ID) ? asString(changes.get(FIELD_ICON_ID)) : base.getIconId(),
+                changes.containsKey(FIELD_LEVEL) ? asString(changes.get(FIELD_LEVEL)) : base.getLevel()
+        );
+        lesson.setId(base.getId());
+        lesson.setVideoPath(videoPath);
+        lesson.setCreatedBy(base.getCreatedBy());
+        return lesson;
+    }
+
+    /**
+     * Extracts the summary fields from a lesson's document data (or from a partial update).
+     *
+     * @param lessonData Full document data or the changed fields of an update
+     * @return The summary fields present in {@code lessonData}; empty if none
+     */
+    static Map<String, Object> toSummary(Map<String, Object> lessonData) {
+        Map<String, Object> summary = new HashMap<>();
+        for (String field : SUMMARY_FIELDS) {
+            if (lessonData.containsKey(field)) {
+                summary.put(field, lessonData.get(field));
+            }
+        }
+        return summary;
+    }
+
+    private static String asString(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    private static int asInt(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+}
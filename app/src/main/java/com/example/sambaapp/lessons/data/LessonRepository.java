@@ -0,0 +1,686 @@
+/**
+ * {@code LessonRepository} sits between {@link com.example.sambaapp.lessons.view.LessonViewModel}
+ * and Firebase Firestore and implements an offline-first, stale-while-revalidate read path.
+ *
+ * <p>For every level request it:</p>
+ * <ol>
+ *     <li>Publishes the lessons cached on the device ({@link LessonCacheHelper}) right away</li>
+ *     <li>Revalidates against Firestore in the background, either through a real-time snapshot
+ *         listener shared by all levels ({@link #openFeed}) or a one-shot fetch ({@link #loadLessons})</li>
+ *     <li>Publishes the fresh list only if it differs from what is already shown, and stores it in the cache</li>
+ *     <li>Keeps the cached list on screen if the network call fails</li>
+ * </ol>
+ *
+ * <p>Lists read the compact {@value #COLLECTION_SUMMARIES} collection (id, title, subtitle,
+ * iconId and level per lesson) instead of whole lesson documents. The full document, with its
+ * description and video metadata, is fetched by id on demand ({@link #getLessonDetails(String)})
+ * and kept in a small in-memory cache. Lesson writes go through {@link #addLesson(String, Map)},
+ * {@link #updateLesson(String, Map)} and {@link #deleteLesson(String)}, which queue the lesson
+ * and its summary writes in the {@link WriteOutbox}, where each is retried until it lands, even
+ * across restarts. They are two separate outbox writes and may be sent in different batches; the
+ * returned task completes when both landed and fails if either is rejected.</p>
+ *
+ * <p>Writes are optimistic: the change is applied to every published list of its level right
+ * away, as a pending mutation layered over the lists received from Firestore. When Firestore
+ * rejects the write the mutation is dropped and the lists roll back; when it succeeds the
+ * mutation stays until Firestore's own lists reflect it. No write ever triggers a reload of the
+ * level.</p>
+ *
+ * <p>Published lessons are interned in the shared {@link LessonStore}, so every screen sees one
+ * instance per lesson id.</p>
+ *
+ * <p>The repository is process-wide; obtain it with {@link #getInstance(Context)}.</p>
+ */
+package com.example.sambaapp.lessons.data;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.sambaapp.core.AppLog;
+import com.example.sambaapp.core.AppPrefs;
+import com.example.sambaapp.core.WriteOutbox;
+import com.example.sambaapp.lessons.model.LessonModel;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LessonRepository {
+
+    private static final String TAG = "LESSON_REPOSITORY";
+
+    /** Full lesson documents */
+    public static final String COLLECTION_LESSONS = "lessons";
+    /** Per-lesson summary documents (same ids) holding only what list rows display */
+    public static final String COLLECTION_SUMMARIES = "lesson_summaries";
+
+    /** Number of full lessons kept in memory for the details screens */
+    private static final int DETAILS_CACHE_SIZE = 32;
+    /** Firestore allows at most 500 writes per batch */
+    private static final int MAX_BATCH_WRITES = 500;
+    private static final String KEY_SUMMARIES_BACKFILLED = "summaries_backfilled_v1";
+
+    /** Minimum time between two Firestore refreshes of the same level */
+    static final long MIN_REFRESH_INTERVAL_MS = 2_000;
+
+    private static volatile LessonRepository instance;
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final Context appContext;
+    private final LessonCacheHelper cache;
+    /** Shared identity map; every published lesson is interned there */
+    private final LessonStore store = LessonStore.getInstance();
+    /** Full lessons by id, for the details screens; {@link LruCache} is thread-safe */
+    private final LruCache<String, LessonModel> details = new LruCache<>(DETAILS_CACHE_SIZE);
+    /**
+     * Single background thread for document mapping and all cache reads and writes
+     * (keeps SQLite access serialized and lesson state confined to one thread)
+     */
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    /** The latest known list per level, used to skip no-op cache writes */
+    private final Map<String, List<LessonModel>> published = new ConcurrentHashMap<>();
+    /** The last list posted to each target LiveData; only touched on {@link #io} */
+    private final Map<MutableLiveData<List<LessonModel>>, List<LessonModel>> delivered = new WeakHashMap<>();
+    /** The level each target LiveData shows; only touched on {@link #io} */
+    private final Map<MutableLiveData<List<LessonModel>>, String> targetLevels = new WeakHashMap<>();
+    /** Optimistic writes by lesson id, layered over the received lists; only touched on {@link #io} */
+    private final Map<String, PendingMutation> pending = new LinkedHashMap<>();
+    /** Refresh query currently running per level, joined by concurrent refreshes */
+    private final Map<String, Task<List<LessonModel>>> inFlight = new ConcurrentHashMap<>();
+    /** {@link SystemClock#elapsedRealtime()} of the last refresh started per level */
+    private final Map<String, Long> lastRefreshAt = new ConcurrentHashMap<>();
+    private final AtomicInteger issuedRefreshes = new AtomicInteger();
+    private final AtomicInteger joinedRefreshes = new AtomicInteger();
+    private final AtomicInteger throttledRefreshes = new AtomicInteger();
+
+    private LessonRepository(Context context) {
+        appContext = context;
+        cache = new LessonCacheHelper(context);
+    }
+
+    /**
+     * Returns the process-wide repository instance.
+     *
+     * @param context Any context; only the application context is retained
+     * @return The shared {@code LessonRepository}
+     */
+    public static LessonRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (LessonRepository.class) {
+                if (instance == null) {
+                    instance = new LessonRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Serves the cached lessons of a level into {@code target} and then revalidates them
+     * against Firestore, posting the fresh list only when it changed.
+     *
+     * @param level  The lesson level to load (e.g., "Beginners", "Advanced", "Expert")
+     * @param target The LiveData the level's lessons are published to
+     */
+    public void loadLessons(String level, MutableLiveData<List<LessonModel>> target) {
+        serveCached(level, target);
+        revalidate(level, target);
+    }
+
+    /**
+     * Publishes the lessons already known for a level (in memory or in the on-device cache)
+     * into {@code target}, without touching the network.
+     *
+     * @param level  The lesson level (e.g., "Beginners")
+     * @param target The LiveData the level's lessons are published to
+     */
+    public void serveCached(String level, MutableLiveData<List<LessonModel>> target) {
+        io.execute(() -> {
+            if (delivered.containsKey(target)) return;
+            targetLevels.put(target, level);
+            List<LessonModel> current = published.get(level);
+            if (current == null) {
+                current = Collections.unmodifiableList(store.internAll(cache.readLevel(level)));
+                if (current.isEmpty()) return;
+                published.put(level, current);
+            }
+            int count = current.size();
+            AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "📦 Serving " + count + " cached lessons for level: " + level);
+            deliver(level, withPending(level, current), target);
+        });
+    }
+
+    /**
+     * Fetches the level from Firestore and publishes the result if it differs from the
+     * currently published list. On failure the current (cached) list is kept.
+     *
+     * <p>Refreshes are single-flight per level: a request arriving while a query for the same
+     * level is running joins it instead of issuing another one, and a level refreshed less than
+     * {@link #MIN_REFRESH_INTERVAL_MS} ago is not queried again (its cached list was already served).</p>
+     */
+    private void revalidate(String level, MutableLiveData<List<LessonModel>> target) {
+        Task<List<LessonModel>> pending = inFlight.get(level);
+        if (pending == null) {
+            if (!tryStartRefresh(level)) return;
+            AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "🔄 Revalidating lessons for level: " + level);
+            pending = db.collection(COLLECTION_SUMMARIES)
+                    .whereEqualTo("level", level)
+                    .get()
+                    .continueWith(io, task -> {
+                        List<LessonModel> lessons = new ArrayList<>();
+                        for (DocumentSnapshot doc : task.getResult()) {
+                            lessons.add(LessonMapper.fromDocument(doc));
+                        }
+                        AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "✅ Mapped " + lessons.size() + " lessons for level: " + level);
+                        return Collections.unmodifiableList(lessons);
+                    });
+            inFlight.put(level, pending);
+            pending.addOnCompleteListener(io, task -> inFlight.remove(level));
+        } else {
+            onRefreshJoined(level);
+        }
+
+        pending.addOnSuccessListener(io, lessons -> onFreshLessons(level, lessons, target))
+                .addOnFailureListener(io, e -> {
+                    Log.e(TAG, "❌ Error loading lessons, keeping cached list: " + e.getMessage());
+                    onLoadFailed(level, target);
+                });
+    }
+
+    /**
+     * Records the start of a refresh of {@code level}, unless the level was refreshed less than
+     * {@link #MIN_REFRESH_INTERVAL_MS} ago, in which case the request is counted as throttled.
+     *
+     * @return {@code true} if the caller should issue the query
+     */
+    boolean tryStartRefresh(String level) {
+        long now = SystemClock.elapsedRealtime();
+        Long last = lastRefreshAt.get(level);
+        if (last != null && now - last < MIN_REFRESH_INTERVAL_MS) {
+            throttledRefreshes.incrementAndGet();
+            AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "⏱ Skipping refresh of " + level + ", last one was " + (now - last) + "ms ago ("
+                    + getRefreshStats() + ")");
+            return false;
+        }
+        lastRefreshAt.put(level, now);
+        issuedRefreshes.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Records a refresh of {@code level} that joined a query already in flight.
+     */
+    void onRefreshJoined(String level) {
+        joinedRefreshes.incrementAndGet();
+        AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "🔗 Joining in-flight refresh of " + level + " (" + getRefreshStats() + ")");
+    }
+
+    /**
+     * Returns how many lesson refreshes were issued, joined to an in-flight query, or throttled
+     * since the process started.
+     *
+     * @return A snapshot of the refresh counters
+     */
+    public RefreshStats getRefreshStats() {
+        return new RefreshStats(issuedRefreshes.get(), joinedRefreshes.get(), throttledRefreshes.get());
+    }
+
+    /**
+     * Returns the full lesson (description, video metadata) for the details screens, from the
+     * in-memory cache when possible and otherwise from Firestore.
+     *
+     * @param lessonId The lesson's document id
+     * @return A task completing with the full lesson
+     */
+    public Task<LessonModel> getLessonDetails(String lessonId) {
+        LessonModel cached = details.get(lessonId);
+        if (cached != null) {
+            return Tasks.forResult(cached);
+        }
+        return db.collection(COLLECTION_LESSONS)
+                .document(lessonId)
+                .get()
+                .continueWith(io, task -> {
+                    DocumentSnapshot doc = task.getResult();
+                    if (!doc.exists()) {
+                        throw new IllegalStateException("Lesson " + lessonId + " does not exist");
+                    }
+                    LessonModel lesson = LessonMapper.fromDocument(doc);
+                    details.put(lessonId, lesson);
+                    return lesson;
+                });
+    }
+
+    /**
+     * Forgets the cached full lesson after its summary changed or disappeared, so the details
+     * screens do not show an outdated description.
+     */
+    void evictDetails(String lessonId) {
+        details.remove(lessonId);
+    }
+
+    /**
+     * Generates the document id for a new lesson, so callers know it before the write settles.
+     *
+     * @return A new, unused lesson id
+     */
+    public String newLessonId() {
+        return db.collection(COLLECTION_LESSONS).document().getId();
+    }
+
+    /**
+     * Creates a lesson together with its summary document. The lesson shows up in its level's
+     * lists immediately and disappears again if Firestore rejects the write.
+     *
+     * @param lessonId   The new lesson's id, from {@link #newLessonId()}
+     * @param lessonData The full lesson document data
+     * @return A task completing when both documents are written
+     */
+    public Task<Void> addLesson(String lessonId, Map<String, Object> lessonData) {
+        Map<String, Object> summary = LessonMapper.toSummary(lessonData);
+
+        // Show the lesson right away; the details screens can open it before the write lands
+        details.put(lessonId, LessonMapper.fromData(lessonId, lessonData));
+        LessonModel optimistic = store.intern(LessonMapper.fromData(lessonId, summary));
+        PendingMutation mutation = null;
+        if (optimistic.getLevel() != null) {
+            mutation = new PendingMutation(PendingMutation.Type.ADD, optimistic.getLevel(), optimistic);
+            track(mutation);
+        }
+
+        WriteOutbox outbox = WriteOutbox.getInstance(appContext);
+        Task<Void> commit = Tasks.whenAll(
+                outbox.set(COLLECTION_LESSONS + "/" + lessonId, lessonData),
+                outbox.set(COLLECTION_SUMMARIES + "/" + lessonId, summary));
+        if (mutation != null) settle(mutation, commit, null);
+        return commit;
+    }
+
+    /**
+     * Updates fields of a lesson, and of its summary when a summary field changed. Lists show
+     * the change immediately and roll it back if Firestore rejects the write. Queued edits of
+     * the same lesson are coalesced by the outbox.
+     *
+     * @param lessonId The lesson's document id
+     * @param changes  The changed fields
+     * @return A task completing when both documents are written
+     */
+    public Task<Void> updateLesson(String lessonId, Map<String, Object> changes) {
+        details.remove(lessonId);
+        Map<String, Object> summary = LessonMapper.toSummary(changes);
+
+        LessonModel current = store.get(lessonId);
+        PendingMutation mutation = null;
+        if (current != null && current.getLevel() != null && !summary.isEmpty()) {
+            LessonModel optimistic = store.intern(LessonMapper.withChanges(current, summary));
+            mutation = new PendingMutation(PendingMutation.Type.UPDATE, current.getLevel(), optimistic);
+            track(mutation);
+        }
+
+        WriteOutbox outbox = WriteOutbox.getInstance(appContext);
+        Task<Void> commit = outbox.update(COLLECTION_LESSONS + "/" + lessonId, changes);
+        if (!summary.isEmpty()) {
+            commit = Tasks.whenAll(commit, outbox.merge(COLLECTION_SUMMARIES + "/" + lessonId, summary));
+        }
+        if (mutation != null) settle(mutation, commit, current);
+        return commit;
+    }
+
+    /**
+     * Deletes a lesson and its summary. Lists drop the lesson immediately and get it back if
+     * Firestore rejects the delete. Once the delete succeeds, the lesson's video copy in the
+     * app's storage is deleted too.
+     *
+     * @param lessonId The lesson's document id
+     * @return A task completing when both documents are deleted
+     */
+    public Task<Void> deleteLesson(String lessonId) {
+        LessonModel full = details.get(lessonId);
+        details.remove(lessonId);
+        // List rows are summaries without the video path; read it before the lesson is gone
+        Task<String> videoPath = videoPathOf(lessonId, full);
+
+        LessonModel current = store.get(lessonId);
+        PendingMutation mutation = null;
+        if (current != null && current.getLevel() != null) {
+            mutation = new PendingMutation(PendingMutation.Type.DELETE, current.getLevel(), current);
+            track(mutation);
+        }
+
+        WriteOutbox outbox = WriteOutbox.getInstance(appContext);
+        Task<Void> commit = videoPath.continueWithTask(io, task -> Tasks.whenAll(
+                outbox.delete(COLLECTION_LESSONS + "/" + lessonId),
+                outbox.delete(COLLECTION_SUMMARIES + "/" + lessonId)));
+        if (mutation != null) settle(mutation, commit, current);
+        commit.addOnSuccessListener(io, v -> deleteVideoCopy(videoPath.getResult()));
+        return commit.addOnSuccessListener(v -> store.remove(lessonId));
+    }
+
+    /**
+     * @param full The cached full lesson, or {@code null} to read the lesson document
+     * @return A task completing with the lesson's video path, or {@code null} if it has none or
+     * the document cannot be read; never fails
+     */
+    private Task<String> videoPathOf(String lessonId, LessonModel full) {
+        if (full != null) {
+            return Tasks.forResult(full.getVideoPath());
+        }
+        return db.collection(COLLECTION_LESSONS)
+                .document(lessonId)
+                .get()
+                .continueWith(io, task -> task.isSuccessful() && task.getResult().exists()
+                        ? task.getResult().getString(LessonMapper.FIELD_VIDEO_PATH)
+                        : null);
+    }
+
+    /**
+     * Deletes a deleted lesson's video if it is a copy in the app's own storage; videos
+     * elsewhere (e.g. in the gallery) belong to the user and are kept. Must run on {@link #io}.
+     *
+     * @param videoPath The lesson's video path or {@code file://} Uri, or {@code null}
+     */
+    private void deleteVideoCopy(String videoPath) {
+        if (videoPath == null || videoPath.isEmpty()) return;
+        String path = videoPath.startsWith("file:") ? Uri.parse(videoPath).getPath() : videoPath;
+        if (path == null || !path.startsWith(appContext.getFilesDir().getPath() + File.separator)) return;
+        File file = new File(path);
+        if (file.delete()) {
+            Log.d(TAG, "📹 Deleted video of deleted lesson: " + file.getName());
+        } else if (file.exists()) {
+            Log.w(TAG, "⚠️ Could not delete video " + file);
+        }
+    }
+
+    /**
+     * Applies an optimistic mutation to the published lists of its level.
+     */
+    private void track(PendingMutation mutation) {
+        io.execute(() -> {
+            String lessonId = mutation.lesson.getId();
+            PendingMutation previous = pending.get(lessonId);
+            if (previous != null && previous.type == PendingMutation.Type.ADD
+                    && mutation.type == PendingMutation.Type.UPDATE) {
+                // Editing a lesson whose creation is still pending keeps it an addition
+                mutation.type = PendingMutation.Type.ADD;
+            }
+            pending.put(lessonId, mutation);
+            republish(mutation.level);
+        });
+    }
+
+    /**
+     * Confirms or rolls back an optimistic mutation once its write settles.
+     *
+     * @param previous The lesson as it was before the mutation, restored in the store on failure
+     */
+    private void settle(PendingMutation mutation, Task<Void> write, LessonModel previous) {
+        write.addOnCompleteListener(io, task -> {
+            String lessonId = mutation.lesson.getId();
+            if (pending.get(lessonId) != mutation) return; // superseded by a later mutation
+            if (task.isSuccessful()) {
+                mutation.confirmed = true;
+                List<LessonModel> base = published.get(mutation.level);
+                if (base != null) prunePending(mutation.level, base);
+            } else {
+                Log.e(TAG, "❌ Lesson write failed, rolling back: " + (task.getException() != null
+                        ? task.getException().getMessage() : "unknown error"));
+                pending.remove(lessonId);
+                if (previous != null) {
+                    store.intern(previous);
+                } else {
+                    store.remove(lessonId);
+                }
+            }
+            republish(mutation.level);
+        });
+    }
+
+    /**
+     * Drops confirmed mutations that the lists received from Firestore already reflect.
+     * Must run on {@link #io}.
+     */
+    private void prunePending(String level, List<LessonModel> base) {
+        if (pending.isEmpty()) return;
+        Map<String, LessonModel> byId = new HashMap<>();
+        for (LessonModel lesson : base) {
+            byId.put(lesson.getId(), lesson);
+        }
+        Iterator<PendingMutation> it = pending.values().iterator();
+        while (it.hasNext()) {
+            PendingMutation mutation = it.next();
+            if (!mutation.confirmed || !level.equals(mutation.level)) continue;
+            LessonModel received = byId.get(mutation.lesson.getId());
+            boolean reflected;
+            switch (mutation.type) {
+                case ADD:
+                    reflected = received != null;
+                    break;
+                case UPDATE:
+                    reflected = received != null && received.hasSameContent(mutation.lesson);
+                    break;
+                default:
+                    reflected = received == null;
+                    break;
+            }
+            if (reflected) it.remove();
+        }
+    }
+
+    /**
+     * Layers the pending mutations of a level over the list received from Firestore.
+     * Must run on {@link #io}.
+     */
+    private List<LessonModel> withPending(String level, List<LessonModel> base) {
+        if (pending.isEmpty()) return base;
+        List<LessonModel> shown = new ArrayList<>(base.size() + 1);
+        Set<String> seen = new HashSet<>();
+        for (LessonModel lesson : base) {
+            seen.add(lesson.getId());
+            PendingMutation mutation = pending.get(lesson.getId());
+            if (mutation == null) {
+                shown.add(lesson);
+            } else if (mutation.type != PendingMutation.Type.DELETE) {
+                shown.add(mutation.lesson);
+            }
+        }
+        for (PendingMutation mutation : pending.values()) {
+            if (mutation.type == PendingMutation.Type.ADD && level.equals(mutation.level)
+                    && !seen.contains(mutation.lesson.getId())) {
+                shown.add(mutation.lesson);
+            }
+        }
+        return Collections.unmodifiableList(shown);
+    }
+
+    /**
+     * Re-publishes a level to every LiveData showing it, e.g. after a pending mutation changed.
+     * Must run on {@link #io}.
+     */
+    private void republish(String level) {
+        List<LessonModel> base = published.get(level);
+        for (Map.Entry<MutableLiveData<List<LessonModel>>, String> entry
+                : new ArrayList<>(targetLevels.entrySet())) {
+            if (level.equals(entry.getValue())) {
+                publishTo(level, base != null ? base : Collections.<LessonModel>emptyList(), entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Creates the summary documents of lessons written before summaries existed. Runs once per
+     * install; must be called by a user allowed to write lessons (an instructor).
+     */
+    public void backfillSummariesOnce() {
+        // Checked on the repository thread; callers run on the main thread
+        io.execute(() -> {
+            AppPrefs prefs = AppPrefs.get(appContext, AppPrefs.APP);
+            if (!prefs.getBoolean(KEY_SUMMARIES_BACKFILLED, false)) backfillSummaries(prefs);
+        });
+    }
+
+    private void backfillSummaries(AppPrefs prefs) {
+        db.collection(COLLECTION_LESSONS).get().addOnSuccessListener(io, lessons -> {
+            List<Task<Void>> commits = new ArrayList<>();
+            WriteBatch batch = db.batch();
+            int writes = 0;
+            for (DocumentSnapshot doc : lessons) {
+                Map<String, Object> data = doc.getData();
+                if (data == null) continue;
+                batch.set(db.collection(COLLECTION_SUMMARIES).document(doc.getId()),
+                        LessonMapper.toSummary(data), SetOptions.merge());
+                if (++writes == MAX_BATCH_WRITES) {
+                    commits.add(batch.commit());
+                    batch = db.batch();
+                    writes = 0;
+                }
+            }
+            if (writes > 0) commits.add(batch.commit());
+            Tasks.whenAll(commits).addOnSuccessListener(io, v -> {
+                Log.d(TAG, "✅ Backfilled summaries for " + lessons.size() + " lessons");
+                prefs.edit().putBoolean(KEY_SUMMARIES_BACKFILLED, true).apply();
+            }).addOnFailureListener(io, e -> Log.e(TAG, "❌ Summary backfill failed: " + e.getMessage()));
+        });
+    }
+
+    /**
+     * Opens a paged, real-time {@link LessonFeed} over several levels at once. The feed keeps a
+     * single snapshot listener on the first window of lessons and loads further pages per level
+     * on demand; see {@link LessonFeed} for details.
+     *
+     * @param levels  The lesson levels to serve (at most 30, a Firestore {@code whereIn} limit)
+     * @param targets The LiveData each level's lessons are published to, keyed by level
+     * @return The feed; call {@link LessonFeed#start()} to begin listening
+     */
+    public LessonFeed openFeed(List<String> levels,
+                               Map<String, ? extends MutableLiveData<List<LessonModel>>> targets) {
+        return new LessonFeed(this, io, db, levels, targets);
+    }
+
+    /**
+     * Applies one snapshot delta to {@code working}. Indices reported by Firestore are relative
+     * to the previous snapshot of the same listener, which {@code working} mirrors, so changes
+     * must be applied in the order they are reported.
+     */
+    static void applyChange(List<LessonModel> working, DocumentChange change) {
+        switch (change.getType()) {
+            case ADDED:
+                working.add(change.getNewIndex(), LessonMapper.fromDocument(change.getDocument()));
+                break;
+            case MODIFIED:
+                if (change.getOldIndex() == change.getNewIndex()) {
+                    working.set(change.getNewIndex(), LessonMapper.fromDocument(change.getDocument()));
+                } else {
+                    working.remove(change.getOldIndex());
+                    working.add(change.getNewIndex(), LessonMapper.fromDocument(change.getDocument()));
+                }
+                break;
+            case REMOVED:
+                working.remove(change.getOldIndex());
+                break;
+        }
+    }
+
+    /**
+     * Publishes and caches a freshly received list unless it matches what is already shown.
+     * The repository takes ownership of {@code lessons}; callers must not modify it afterwards.
+     */
+    void onFreshLessons(String level, List<LessonModel> fresh, MutableLiveData<List<LessonModel>> target) {
+        io.execute(() -> {
+            List<LessonModel> lessons = Collections.unmodifiableList(store.internAll(fresh));
+            if (!sameContent(published.get(level), lessons)) {
+                published.put(level, lessons);
+                cache.replaceLevel(level, lessons);
+            }
+            prunePending(level, lessons);
+            if (target == null) return;
+            publishTo(level, lessons, target);
+        });
+    }
+
+    /**
+     * Posts {@code base} with the level's pending mutations applied, unless {@code target}
+     * already shows the same content. Must run on {@link #io}.
+     */
+    private void publishTo(String level, List<LessonModel> base, MutableLiveData<List<LessonModel>> target) {
+        List<LessonModel> shown = withPending(level, base);
+        if (sameContent(delivered.get(target), shown)) {
+            AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "✔ Level " + level + " unchanged, skipping update");
+            return;
+        }
+        deliver(level, shown, target);
+    }
+
+    /**
+     * Makes sure the level shows something after a failed load: whatever is cached, or an empty list.
+     */
+    void onLoadFailed(String level, MutableLiveData<List<LessonModel>> target) {
+        if (target == null) return;
+        io.execute(() -> {
+            if (!delivered.containsKey(target)) {
+                List<LessonModel> current = published.get(level);
+                deliver(level, withPending(level, current != null ? current
+                        : Collections.unmodifiableList(store.internAll(cache.readLevel(level)))), target);
+            }
+        });
+    }
+
+    /**
+     * Posts {@code lessons} to {@code target}; must run on {@link #io}. Posted lists are
+     * unmodifiable, so observers that need to edit them must copy first.
+     */
+    private void deliver(String level, List<LessonModel> lessons, MutableLiveData<List<LessonModel>> target) {
+        targetLevels.put(target, level);
+        delivered.put(target, lessons);
+        target.postValue(lessons);
+    }
+
+    private static boolean sameContent(List<LessonModel> a, List<LessonModel> b) {
+        if (a == null || b == null || a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).hasSameContent(b.get(i))) return false;
+        }
+        return true;
+    }
+
+    /** An optimistic lesson write not yet reflected in the lists received from Firestore */
+    private static final class PendingMutation {
+        enum Type { ADD, UPDATE, DELETE }
+
+        Type type;
+        final String level;
+        /** The lesson as it should be shown (for deletions, the lesson being removed) */
+        final LessonModel lesson;
+        /** Whether the write succeeded; the mutation is then dropped once Firestore reflects it */
+        boolean confirmed;
+
+        PendingMutation(Type type, String level, LessonModel lesson) {
+            this.type = type;
+            this.level = level;
+            this.lesson = lesson;
+        }
+    }
+}
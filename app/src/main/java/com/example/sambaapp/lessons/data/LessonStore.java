@@ -0,0 +1,150 @@
+/**
+ * {@code LessonStore} is the process-wide identity map of lessons, keyed by lesson id.
+ *
+ * <p>Every lesson published by {@link LessonRepository} passes through {@link #intern(LessonModel)},
+ * so all screens share one up-to-date instance per lesson and an unchanged lesson keeps its
+ * identity across snapshots. Screens pass lessons to each other by id
+ * ({@link #putExtra(Intent, LessonModel)} / {@link #fromIntent(Intent)}) instead of serializing
+ * the whole object into the Intent, which avoids Java serialization on every tap, keeps large
+ * descriptions out of the binder transaction and never hands a screen a stale copy.</p>
+ *
+ * <p>Lessons are held weakly: a lesson stays in the store while a published list, a pending write
+ * or an open screen references it, and is dropped once nothing does, so the store never grows
+ * beyond the lessons in use.</p>
+ *
+ * <p>A compact {@link LessonRef} travels along as a fallback for when the store no longer has
+ * the lesson, e.g. after process death.</p>
+ */
+package com.example.sambaapp.lessons.data;
+
+import android.content.Intent;
+
+import com.example.sambaapp.lessons.model.LessonModel;
+import com.example.sambaapp.lessons.model.LessonRef;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class LessonStore {
+
+    /** Intent extra holding the lesson id */
+    public static final String EXTRA_LESSON_ID = "lesson_id";
+    /** Intent extra holding the {@link LessonRef} fallback */
+    public static final String EXTRA_LESSON = "lesson";
+
+    private static final LessonStore INSTANCE = new LessonStore();
+
+    private final Map<String, Entry> lessons = new ConcurrentHashMap<>();
+    /** Entries whose lesson was garbage collected */
+    private final ReferenceQueue<LessonModel> collected = new ReferenceQueue<>();
+
+    /** A weakly held lesson, remembering its id so the entry can be removed once it is collected */
+    private static final class Entry extends WeakReference<LessonModel> {
+        final String id;
+
+        Entry(String id, LessonModel lesson, ReferenceQueue<LessonModel> queue) {
+            super(lesson, queue);
+            this.id = id;
+        }
+    }
+
+    private LessonStore() {
+    }
+
+    /** @return The process-wide store */
+    public static LessonStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the canonical instance for {@code lesson}'s id: the stored one if its content is
+     * unchanged, otherwise {@code lesson} itself, which then replaces the stored one.
+     * Lessons without an id are returned as is.
+     *
+     * @param lesson A freshly mapped lesson
+     * @return The instance all screens share for this lesson
+     */
+    public LessonModel intern(LessonModel lesson) {
+        String id = lesson.getId();
+        if (id == null) return lesson;
+        expunge();
+        LessonModel existing = get(id);
+        if (existing != null && existing.hasSameContent(lesson)) {
+            return existing;
+        }
+        lessons.put(id, new Entry(id, lesson, collected));
+        return lesson;
+    }
+
+    /**
+     * Interns every lesson of a list.
+     *
+     * @param fresh Freshly mapped lessons
+     * @return A new list of the canonical instances, in the same order
+     */
+    List<LessonModel> internAll(List<LessonModel> fresh) {
+        List<LessonModel> interned = new ArrayList<>(fresh.size());
+        for (LessonModel lesson : fresh) {
+            interned.add(intern(lesson));
+        }
+        return interned;
+    }
+
+    /**
+     * @param lessonId The lesson's id
+     * @return The stored lesson, or {@code null} if it is not (or no longer) known
+     */
+    public LessonModel get(String lessonId) {
+        Entry entry = lessonId != null ? lessons.get(lessonId) : null;
+        return entry != null ? entry.get() : null;
+    }
+
+    /**
+     * Forgets a deleted lesson.
+     *
+     * @param lessonId The deleted lesson's id
+     */
+    public void remove(String lessonId) {
+        if (lessonId != null) lessons.remove(lessonId);
+    }
+
+    /** Removes the entries of collected lessons, unless a newer entry replaced them */
+    private void expunge() {
+        Reference<? extends LessonModel> reference;
+        while ((reference = collected.poll()) != null) {
+            Entry entry = (Entry) reference;
+            lessons.remove(entry.id, entry);
+        }
+    }
+
+    /**
+     * Passes a lesson to another screen by id, with a compact {@link LessonRef} as fallback.
+     *
+     * @param intent The Intent starting the screen
+     * @param lesson The lesson to pass
+     */
+    public static void putExtra(Intent intent, LessonModel lesson) {
+        LessonModel canonical = INSTANCE.intern(lesson);
+        intent.putExtra(EXTRA_LESSON_ID, canonical.getId());
+        intent.putExtra(EXTRA_LESSON, LessonRef.of(canonical));
+    }
+
+    /**
+     * Resolves the lesson passed with {@link #putExtra(Intent, LessonModel)}: the shared instance
+     * when the store still knows it, otherwise a summary rebuilt from the {@link LessonRef}.
+     *
+     * @param intent The Intent that started the screen
+     * @return The lesson, or {@code null} if the Intent carries none
+     */
+    public static LessonModel fromIntent(Intent intent) {
+        LessonModel stored = INSTANCE.get(intent.getStringExtra(EXTRA_LESSON_ID));
+        if (stored != null) return stored;
+        LessonRef ref = intent.getParcelableExtra(EXTRA_LESSON);
+        return ref != null ? ref.toLesson() : null;
+    }
+}
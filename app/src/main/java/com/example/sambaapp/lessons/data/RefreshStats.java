@@ -0,0 +1,37 @@
+/**
+ * {@code RefreshStats} is an immutable snapshot of the lesson refresh counters kept by
+ * {@link LessonRepository}, showing how many Firestore loads were issued and how many duplicate
+ * requests were avoided.
+ *
+ * @see LessonRepository#getRefreshStats()
+ */
+package com.example.sambaapp.lessons.data;
+
+import androidx.annotation.NonNull;
+
+public final class RefreshStats {
+
+    /** Refreshes that issued a Firestore query */
+    public final int issued;
+    /** Refreshes that joined a query already in flight for the same level */
+    public final int joined;
+    /** Refreshes skipped because the level was refreshed less than the minimum interval ago */
+    public final int throttled;
+
+    RefreshStats(int issued, int joined, int throttled) {
+        this.issued = issued;
+        this.joined = joined;
+        this.throttled = throttled;
+    }
+
+    /** @return Number of Firestore loads avoided by coalescing and throttling */
+    public int getAvoided() {
+        return joined + throttled;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "issued=" + issued + ", joined=" + joined + ", throttled=" + throttled;
+    }
+}
@@ -0,0 +1,362 @@
+/**
+ * {@code VideoImportWorker} copies a picked lesson video into the app's {@code videos} directory in
+ * the background, as WorkManager work.
+ *
+ * <p>The video is read through its {@link ParcelFileDescriptor} and copied with
+ * {@link FileChannel#transferFrom}, {@link #CHUNK_BYTES} at a time, so the kernel moves the data
+ * without a small Java buffer in between. A provider that streams the video through a pipe has
+ * no size to transfer from, so that video is read through a {@link #PIPE_BUFFER_BYTES} buffer
+ * instead. Progress is published after every chunk; the work stops between chunks when it is
+ * stopped. A copy shorter than the video's size fails. The copy goes to a {@code .part} file that
+ * is synced and then renamed to the target, so the target either does not exist or holds the
+ * whole video.</p>
+ *
+ * <p>Only a cancel counts as a failed import. When the system stops the work for other reasons
+ * (e.g. its execution time limit), the partial copy is dropped and WorkManager runs the import
+ * again.</p>
+ *
+ * <p>Every import is unique work named after its target file, so dropping one import
+ * ({@link #discard}) never touches another, and a recreated screen finds its import again by the
+ * target alone ({@link #observe}). The import is independent of the screen that started it, so it
+ * finishes after that screen is closed.</p>
+ *
+ * <p>Once the lesson pointing at the copy is saved, the import is linked to it
+ * ({@link #attachToLesson}). If the import then fails or is cancelled, the lesson's
+ * {@code videoPath} is cleared, so it does not point at a file that will never exist.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * File target = VideoImportWorker.newTargetFile(context);
+ * VideoImportWorker.enqueue(context, videoUri, target).observe(this, info -> {
+ *     int percent = VideoImportWorker.percentOf(info);
+ * });
+ * }</pre>
+ */
+package com.example.sambaapp.lessons.data;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Build;
+import android.os.ParcelFileDescriptor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.sambaapp.core.AppPrefs;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class VideoImportWorker extends Worker {
+
+    private static final String TAG = "VIDEO_IMPORT";
+    /** Prefix of the unique work names, followed by the target file's name */
+    private static final String WORK_NAME = "lesson_video_import_";
+    /** {@link AppPrefs#APP} key prefixes, followed by the target file's name */
+    private static final String KEY_LESSON_PREFIX = "video_import_lesson_";
+    private static final String KEY_FAILED_PREFIX = "video_import_failed_";
+    /** Orders linking an import to its lesson against the import failing */
+    private static final Object LINK_LOCK = new Object();
+    /** Names of discarded targets a running import must not create; guarded by {@link #LINK_LOCK} */
+    private static final Set<String> DISCARDED = new HashSet<>();
+    private static final String KEY_SOURCE = "source";
+    private static final String KEY_TARGET = "target";
+    public static final String KEY_COPIED_BYTES = "copied_bytes";
+    public static final String KEY_TOTAL_BYTES = "total_bytes";
+    /** Bytes copied per transfer call, between progress updates and cancellation checks */
+    static final long CHUNK_BYTES = 8L * 1024 * 1024;
+    /** Read buffer for videos streamed through a pipe */
+    static final int PIPE_BUFFER_BYTES = 1024 * 1024;
+
+    public VideoImportWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * @param context Any context
+     * @return A new, not yet existing file in the app's {@code videos} directory
+     */
+    public static File newTargetFile(Context context) {
+        File dir = new File(context.getFilesDir(), "videos");
+        return new File(dir, "lesson_" + System.currentTimeMillis() + ".mp4");
+    }
+
+    /**
+     * Starts importing a video.
+     *
+     * @param context Any context
+     * @param source  The picked video
+     * @param target  The file to copy it to, from {@link #newTargetFile}
+     * @return The import's state and progress
+     */
+    public static LiveData<WorkInfo> enqueue(Context context, Uri source, File target) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(VideoImportWorker.class)
+                .setInputData(new Data.Builder()
+                        .putString(KEY_SOURCE, source.toString())
+                        .putString(KEY_TARGET, target.getAbsolutePath())
+                        .build())
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(workName(target), ExistingWorkPolicy.KEEP, request);
+        return observe(context, target);
+    }
+
+    /**
+     * Finds an import again, e.g. from a screen recreated after a rotation.
+     *
+     * @param context Any context
+     * @param target  The import's target file
+     * @return The import's state and progress; {@code null} until known or once pruned
+     */
+    public static LiveData<WorkInfo> observe(Context context, File target) {
+        return Transformations.map(
+                WorkManager.getInstance(context).getWorkInfosForUniqueWorkLiveData(workName(target)),
+                infos -> infos == null || infos.isEmpty() ? null : infos.get(0));
+    }
+
+    /**
+     * Drops an import that is no longer needed: cancels it if it is still running (its partial
+     * file is deleted by the worker) and deletes the video if it was already copied. Other
+     * imports are not affected.
+     *
+     * @param context Any context
+     * @param target  The import's target file
+     */
+    public static void discard(Context context, File target) {
+        Context appContext = context.getApplicationContext();
+        WorkManager.getInstance(appContext).cancelUniqueWork(workName(target));
+        // Deleting a large file can take a while; keep it off the calling (main) thread
+        new Thread(() -> {
+            synchronized (LINK_LOCK) {
+                // An import past its last stop check now drops its copy instead of renaming it
+                DISCARDED.add(target.getName());
+                AppPrefs.get(appContext, AppPrefs.APP).edit()
+                        .remove(KEY_LESSON_PREFIX + target.getName())
+                        .remove(KEY_FAILED_PREFIX + target.getName())
+                        .apply();
+            }
+            // Renamed before the mark was set: delete the copy
+            delete(target);
+        }, "video-discard").start();
+    }
+
+    /**
+     * Links an import to the saved lesson whose {@code videoPath} is the import's target. If the
+     * import has already failed, or fails or is cancelled later, the lesson's {@code videoPath}
+     * is cleared; the lesson itself is kept.
+     *
+     * @param context  Any context
+     * @param target   The import's target file
+     * @param lessonId The saved lesson's document id
+     */
+    public static void attachToLesson(Context context, File target, String lessonId) {
+        Context appContext = context.getApplicationContext();
+        String name = target.getName();
+        boolean failed;
+        synchronized (LINK_LOCK) {
+            AppPrefs prefs = AppPrefs.get(appContext, AppPrefs.APP);
+            failed = prefs.getBoolean(KEY_FAILED_PREFIX + name, false);
+            if (failed) {
+                prefs.edit().remove(KEY_FAILED_PREFIX + name).apply();
+            } else {
+                prefs.edit().putString(KEY_LESSON_PREFIX + name, lessonId).apply();
+            }
+        }
+        if (failed) clearVideoPath(appContext, lessonId);
+    }
+
+    /**
+     * @param info The import's state, as published by {@link #enqueue}
+     * @return The copied share in percent, or -1 while the video's size is unknown
+     */
+    public static int percentOf(WorkInfo info) {
+        if (info == null) return -1;
+        if (info.getState() == WorkInfo.State.SUCCEEDED) return 100;
+        long total = info.getProgress().getLong(KEY_TOTAL_BYTES, -1);
+        long copied = info.getProgress().getLong(KEY_COPIED_BYTES, 0);
+        return total > 0 ? (int) (copied * 100 / total) : -1;
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Uri source = Uri.parse(getInputData().getString(KEY_SOURCE));
+        File target = new File(getInputData().getString(KEY_TARGET));
+        File part = new File(target.getPath() + ".part");
+        long start = SystemClock.elapsedRealtime();
+        try {
+            File dir = target.getParentFile();
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("cannot create " + dir);
+            }
+            long copied = copy(source, part);
+            if (isStopped()) return onStopped(target, part);
+            synchronized (LINK_LOCK) {
+                if (DISCARDED.remove(target.getName())) {
+                    delete(part);
+                    Log.d(TAG, "🛑 Import discarded");
+                    return Result.failure();
+                }
+                if (!part.renameTo(target)) {
+                    throw new IOException("rename failed");
+                }
+                AppPrefs.get(getApplicationContext(), AppPrefs.APP).edit()
+                        .remove(KEY_LESSON_PREFIX + target.getName())
+                        .apply();
+            }
+            Log.d(TAG, "🎬 Imported " + copied / (1024 * 1024) + " MB in "
+                    + (SystemClock.elapsedRealtime() - start) + " ms");
+            return Result.success(new Data.Builder().putString(KEY_TARGET, target.getAbsolutePath()).build());
+        } catch (IOException | RuntimeException e) {
+            if (isStopped()) return onStopped(target, part);
+            Log.e(TAG, "❌ Import failed", e);
+            delete(part);
+            onFailed(target);
+            return Result.failure();
+        }
+    }
+
+    /**
+     * Drops the partial copy of a stopped import. Only a cancelled import failed; otherwise
+     * WorkManager runs it again, and the lesson keeps its video.
+     */
+    private Result onStopped(File target, File part) {
+        delete(part);
+        if (isCancelled()) {
+            Log.d(TAG, "🛑 Import cancelled");
+            onFailed(target);
+            return Result.failure();
+        }
+        Log.d(TAG, "⏸️ Import stopped by the system; it runs again");
+        return Result.retry();
+    }
+
+    /** Whether the work was cancelled, rather than stopped by the system to be run again */
+    private boolean isCancelled() {
+        // The stop reason is known from API 31 on. Before that the app cancels only through
+        // discard(), whose import belongs to no saved lesson, so keeping the link is harmless
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
+                && getStopReason() == WorkInfo.STOP_REASON_CANCELLED_BY_APP;
+    }
+
+    /**
+     * Clears the video of the lesson linked to the import, or marks the import failed for
+     * {@link #attachToLesson} if no lesson is linked yet.
+     */
+    private void onFailed(File target) {
+        String name = target.getName();
+        String lessonId;
+        synchronized (LINK_LOCK) {
+            AppPrefs prefs = AppPrefs.get(getApplicationContext(), AppPrefs.APP);
+            lessonId = prefs.getString(KEY_LESSON_PREFIX + name, null);
+            if (lessonId != null) {
+                prefs.edit().remove(KEY_LESSON_PREFIX + name).apply();
+            } else {
+                prefs.edit().putBoolean(KEY_FAILED_PREFIX + name, true).apply();
+            }
+        }
+        if (lessonId != null) clearVideoPath(getApplicationContext(), lessonId);
+    }
+
+    private static void clearVideoPath(Context context, String lessonId) {
+        Log.w(TAG, "⚠️ Video of lesson " + lessonId + " was not imported; clearing it");
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("videoPath", null);
+        LessonRepository.getInstance(context).updateLesson(lessonId, changes);
+    }
+
+    private static String workName(File target) {
+        return WORK_NAME + target.getName();
+    }
+
+    /**
+     * Copies the video into {@code part} until done or stopped.
+     *
+     * @return The bytes copied
+     * @throws IOException If the video cannot be read, or ends before its size
+     */
+    private long copy(Uri source, File part) throws IOException {
+        ParcelFileDescriptor pfd = getApplicationContext().getContentResolver()
+                .openFileDescriptor(source, "r");
+        if (pfd == null) {
+            throw new IOException("cannot open " + source);
+        }
+        long total = pfd.getStatSize(); // -1 if the provider streams the video through a pipe
+        // Closing the input stream closes the descriptor as well
+        try (FileChannel in = new ParcelFileDescriptor.AutoCloseInputStream(pfd).getChannel();
+             FileChannel out = new FileOutputStream(part).getChannel()) {
+            long position = total < 0 ? copyStream(in, out) : copyFile(in, out, total);
+            if (isStopped()) return position;
+            if (total >= 0 && position != total) {
+                throw new IOException("copied " + position + " of " + total + " bytes");
+            }
+            out.force(true);
+            return position;
+        }
+    }
+
+    /** Copies a file of known size; the kernel moves the data */
+    private long copyFile(FileChannel in, FileChannel out, long total) throws IOException {
+        long position = 0;
+        while (!isStopped()) {
+            // Reads from the input's own position, up to its size; 0 means the input is exhausted
+            long transferred = out.transferFrom(in, position, CHUNK_BYTES);
+            if (transferred <= 0) break;
+            position += transferred;
+            publishProgress(position, total);
+        }
+        return position;
+    }
+
+    /** Copies a pipe, whose size is unknown (0 to {@code transferFrom}), until its end */
+    private long copyStream(FileChannel in, FileChannel out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(PIPE_BUFFER_BYTES);
+        long position = 0;
+        long published = 0;
+        while (!isStopped()) {
+            int read = in.read(buffer);
+            if (read < 0) break;
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+            position += read;
+            if (position - published >= CHUNK_BYTES) {
+                published = position;
+                publishProgress(position, -1);
+            }
+        }
+        return position;
+    }
+
+    private void publishProgress(long copied, long total) {
+        setProgressAsync(new Data.Builder()
+                .putLong(KEY_COPIED_BYTES, copied)
+                .putLong(KEY_TOTAL_BYTES, total)
+                .build());
+    }
+
+    private static void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "⚠️ Could not delete " + file);
+        }
+    }
+}
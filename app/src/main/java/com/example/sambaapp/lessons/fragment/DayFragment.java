@@ -7,6 +7,7 @@
  * - React to lesson selection events (open detail screen)
  * - Integrate with {@link LessonViewModel} and observe real-time updates from Firestore
  * - Supports instructors (edit access) and trainees (read-only view)
+ * - Recycles its rows through the host's shared pool when the host is a {@link LessonViewPoolHost}
  *
  * Part of MVVM architecture: View (Fragment), ViewModel (LessonViewModel), Model (Firestore)
  */
@@ -26,9 +27,11 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.sambaapp.lessons.model.LessonModel;
+import com.example.sambaapp.lessons.data.LessonStore;
 import com.example.sambaapp.R;
 import com.example.sambaapp.lessons.view.LessonViewModel;
 import com.example.sambaapp.lessons.view.LessonDetailsActivity;
+import com.example.sambaapp.user.UserLessonState;
 import com.example.sambaapp.user.UserManager;
 
 import java.util.ArrayList;
@@ -36,6 +39,8 @@ import java.util.ArrayList;
 public class DayFragment extends Fragment {
     /** Argument key used to identify lesson level in the fragment arguments bundle */
     private static final String ARG_LEVEL = "level";
+    /** Rows prefetched when the tab is about to be swiped in (about one screen) */
+    private static final int INITIAL_PREFETCH_ROWS = 6;
     /** The lesson level to filter by (e.g., "Beginners", "Advanced") */
     private String level;
     /** RecyclerView used to display the list of lessons */
@@ -75,7 +80,15 @@ public class DayFragment extends Fragment {
 
         // Initialize RecyclerView
         recyclerView = view.findViewById(R.id.recycler_day_lessons);
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        // The tab lives inside ViewPager2's RecyclerView, which prefetches it before it is swiped in
+        layoutManager.setInitialPrefetchItemCount(INITIAL_PREFETCH_ROWS);
+        if (getActivity() instanceof LessonViewPoolHost) {
+            // Rows of a tab that goes off screen return to the pool shared by all tabs
+            layoutManager.setRecycleChildrenOnDetach(true);
+            recyclerView.setRecycledViewPool(((LessonViewPoolHost) getActivity()).getLessonViewPool());
+        }
+        recyclerView.setLayoutManager(layoutManager);
 
         // Retrieve the lesson level from arguments
         if (getArguments() != null) {
@@ -88,6 +101,8 @@ public class DayFragment extends Fragment {
         // Initialize adapter with empty list and role awareness
         adapter = new LessonAdapter(new ArrayList<>(), isInstructor);
         recyclerView.setAdapter(adapter);
+        // Favorite and watched marks come from the in-memory user state
+        UserLessonState.getInstance(requireContext()).getSnapshots().observe(getViewLifecycleOwner(), adapter::setUserState);
 
         // Set click listeners for lesson items
         adapter.setOnLessonClickListener(new LessonAdapter.OnLessonClickListener() {
@@ -105,32 +120,31 @@ public class DayFragment extends Fragment {
             public void onLessonClick(LessonModel lesson) {
                 // Open the detailed lesson view
                 Intent intent = new Intent(getContext(), LessonDetailsActivity.class);
-                intent.putExtra("lesson", lesson);
+                LessonStore.putExtra(intent, lesson);
                 startActivity(intent);
             }
         });
 
-        // Initialize ViewModel
-        lessonViewModel = new ViewModelProvider(this).get(LessonViewModel.class);
+        // Initialize the activity-scoped ViewModel shared by all level tabs
+        lessonViewModel = new ViewModelProvider(requireActivity()).get(LessonViewModel.class);
 
-        // Observe lessons filtered by level and update the UI
-        lessonViewModel.getLessonsByLevel(level, true).observe(getViewLifecycleOwner(), lessons -> {
+        // Observe lessons filtered by level; the ViewModel keeps them live while observed
+        lessonViewModel.getLessonsByLevel(level).observe(getViewLifecycleOwner(), lessons -> {
             adapter.updateList(lessons);
         });
 
-        return view;
-    }
+        // Load the next page when the list nears its end, and drop pages far below the viewport
+        adapter.setOnNearEndListener(() -> lessonViewModel.loadNextPage(level));
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView rv, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    lessonViewModel.trimLevel(level, layoutManager.findLastVisibleItemPosition());
+                }
+            }
+        });
 
-    /**
-     * Lifecycle method called when the fragment resumes visibility.
-     * Refreshes the lesson list to ensure data is up to date.
-     */
-    @Override
-    public void onResume() {
-        super.onResume();
-        if (lessonViewModel != null && level != null) {
-            lessonViewModel.refresh(level);  // Refresh lesson list on resume
-        }
+        return view;
     }
 
 }
@@ -6,7 +6,7 @@
  * <ul>
  *     <li>Displaying a RecyclerView of expert-level lessons</li>
  *     <li>Observing LiveData for real-time updates from Firestore</li>
- *     <li>Refreshing lessons on resume and manual trigger</li>
+ *     <li>Keeping lessons live through the ViewModel's snapshot listener, plus a manual refresh trigger</li>
  * </ul>
  *
  * <p>This class implements {@link RefreshableFragment} interface, allowing external triggers for data refresh.
@@ -29,6 +29,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.sambaapp.R;
 import com.example.sambaapp.core.RefreshableFragment;
 import com.example.sambaapp.lessons.view.LessonViewModel;
+import com.example.sambaapp.user.UserLessonState;
 import com.example.sambaapp.user.UserManager;
 
 import java.util.ArrayList;
@@ -56,7 +57,7 @@ public class ExpertFragment extends Fragment implements RefreshableFragment {
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        viewModel = new ViewModelProvider(this).get(LessonViewModel.class);
+        viewModel = new ViewModelProvider(requireActivity()).get(LessonViewModel.class);
     }
 
 
@@ -76,14 +77,19 @@ public class ExpertFragment extends Fragment implements RefreshableFragment {
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         adapter = new LessonAdapter(new ArrayList<>(), UserManager.isInstructor());
         recyclerView.setAdapter(adapter);
+        // Favorite and watched marks come from the in-memory user state
+        UserLessonState.getInstance(requireContext()).getSnapshots().observe(getViewLifecycleOwner(), adapter::setUserState);
 
-        // Obtain ViewModel and observe expert lessons
-        lessonViewModel = new ViewModelProvider(this).get(LessonViewModel.class);
+        // Obtain the activity-scoped ViewModel and observe expert lessons
+        lessonViewModel = new ViewModelProvider(requireActivity()).get(LessonViewModel.class);
 
         // צפייה ברשימת שיעורים לפי רמה
-        lessonViewModel.getLessonsByLevel("Expert",true).observe(getViewLifecycleOwner(), lessons -> {
+        lessonViewModel.getLessonsByLevel("Expert").observe(getViewLifecycleOwner(), lessons -> {
             adapter.updateList(lessons);
         });
+
+        // Load the next page when the list nears its end
+        adapter.setOnNearEndListener(() -> lessonViewModel.loadNextPage("Expert"));
     }
 
     /**
@@ -96,17 +102,6 @@ public class ExpertFragment extends Fragment implements RefreshableFragment {
         }
     }
 
-    /**
-     * Automatically refreshes expert lessons every time the fragment resumes.
-     * Useful for keeping the data up-to-date when navigating back.
-     */
-    @Override
-    public void onResume() {
-        super.onResume();
-        if (lessonViewModel != null) {
-            lessonViewModel.refresh("Expert");
-        }
-    }
     /**
      * Provides access to the ViewModel for external use (e.g., tab manager).
      *
@@ -10,13 +10,16 @@
  *     <li>Deleting (long press, instructors only)</li>
  * </ul>
  *
- * <p>Favorites and watched statuses are managed via:
- * <ul>
- *     <li>SharedPreferences (local)</li>
- *     <li>Firebase Firestore (remote)</li>
- * </ul>
+ * <p>Favorites and watched statuses are managed via {@link UserLessonState}, which keeps them in
+ * memory; favorites are stored and synced to Firestore by {@link com.example.sambaapp.user.FavoritesEngine}.
+ * Rows are bound from the latest {@link UserLessonState.Snapshot} passed to
+ * {@link #setUserState}, so binding does not touch SharedPreferences or FirebaseAuth.
+ *
+ * <p>Visual elements such as icons are selected from metadata through {@link LessonIconRegistry}.
  *
- * <p>Visual elements such as icons are dynamically selected based on metadata.
+ * <p>Lists are diffed on a background thread ({@link ListAdapter}) against the previous list, by
+ * lesson id and content, so an update only rebinds the rows that changed and keeps item
+ * animations and the scroll position. Item ids are stable and derived from the Firestore id.
  *
  * <p><strong>Layout:</strong> {@code item_lesson.xml}
  *
@@ -26,7 +29,6 @@
 package com.example.sambaapp.lessons.fragment;
 
 import android.content.Intent;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -38,32 +40,115 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.sambaapp.core.AppLog;
 import com.example.sambaapp.lessons.model.LessonModel;
 import com.example.sambaapp.R;
-import com.example.sambaapp.core.LocalStorageManager;
+import com.example.sambaapp.lessons.data.LessonRepository;
+import com.example.sambaapp.lessons.data.LessonStore;
 import com.example.sambaapp.lessons.view.EditLessonActivity;
 import com.example.sambaapp.lessons.view.LessonDetailsActivity;
+import com.example.sambaapp.user.UserLessonState;
 import com.example.sambaapp.user.UserManager;
-import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.io.File;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+public class LessonAdapter extends ListAdapter<LessonModel, LessonAdapter.LessonViewHolder> {
+
+    /** How many rows before the end of the list the next page is requested */
+    private static final int NEAR_END_THRESHOLD = 5;
+    /** Bind log message; one shared instance, so a suppressed bind log allocates nothing */
+    private static final Function<LessonModel, String> BIND_LOG =
+            lesson -> "📌 Binding lesson: " + lesson.getTitle() + ", isPast=" + lesson.isPast();
 
-public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonViewHolder> {
+    /**
+     * Rows are the same lesson when their keys match, and unchanged when the shared instance
+     * is reused or its content is equal.
+     */
+    private static final DiffUtil.ItemCallback<LessonModel> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<LessonModel>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull LessonModel oldItem, @NonNull LessonModel newItem) {
+                    return keyOf(oldItem).equals(keyOf(newItem));
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull LessonModel oldItem, @NonNull LessonModel newItem) {
+                    return oldItem == newItem || oldItem.hasSameContent(newItem);
+                }
+
+                @Override
+                public Object getChangePayload(@NonNull LessonModel oldItem, @NonNull LessonModel newItem) {
+                    // A lesson that became past changes its heart too; rebind the whole row then
+                    return oldItem.isPast() == newItem.isPast() ? Change.METADATA_CHANGED : null;
+                }
+            };
+
+    /**
+     * Change payloads for {@link #notifyItemChanged(int, Object)}: each one rebinds only the
+     * views it names, without the change animation of a full rebind.
+     */
+    public enum Change {
+        /** The user's favorite mark changed; rebinds the heart */
+        FAVORITE_CHANGED,
+        /** The user's watched mark changed; rebinds the checkbox */
+        WATCHED_CHANGED,
+        /** The lesson's own fields changed; rebinds title, subtitle and icon */
+        METADATA_CHANGED
+    }
 
-    private List<LessonModel> lessonList;
     private boolean isInstructor;
     private OnLessonClickListener listener;
+    private Runnable onNearEndListener;
+    private UserLessonState.Snapshot userState = UserLessonState.Snapshot.EMPTY;
+    /**
+     * Stable item id per lesson key of the current list, handed out in order of first appearance;
+     * keys that left the list are pruned in {@link #onCurrentListChanged}
+     */
+    private final Map<String, Long> itemIds = new HashMap<>();
+    /** Next item id to hand out; ids are never reused */
+    private long nextItemId;
+
+    /**
+     * Shows a new list of lessons. The list is diffed against the current one off the main thread
+     * and only changed rows are rebound; it must not be modified after this call.
+     *
+     * @param newList The lessons to show
+     */
     public void updateList(List<LessonModel> newList) {
-        Log.d("ADAPTER", "🔁 Received " + newList.size() + " lessons");
-        for (LessonModel lesson : newList) {
-            Log.d("ADAPTER", "📄 Lesson in adapter: " + lesson.getTitle());
+        AppLog.d(AppLog.Tag.ADAPTER, () -> "🔁 Received " + newList.size() + " lessons");
+        submitList(newList);
+    }
+
+    /**
+     * Shows the user's latest favorite and watched state, whether it changed locally or remotely.
+     * Rows whose marks changed get a {@link Change#FAVORITE_CHANGED} or
+     * {@link Change#WATCHED_CHANGED} update that only rebinds the affected view.
+     *
+     * @param state A snapshot from {@link UserLessonState#getSnapshots()}
+     */
+    public void setUserState(UserLessonState.Snapshot state) {
+        UserLessonState.Snapshot previous = userState;
+        userState = state;
+        List<LessonModel> lessons = getCurrentList();
+        for (int i = 0; i < lessons.size(); i++) {
+            String id = lessons.get(i).getId();
+            if (previous.isFavorite(id) != state.isFavorite(id)) {
+                notifyItemChanged(i, Change.FAVORITE_CHANGED);
+            }
+            if (previous.isWatched(id) != state.isWatched(id)) {
+                notifyItemChanged(i, Change.WATCHED_CHANGED);
+            }
         }
-        this.lessonList = newList;
-        notifyDataSetChanged();
     }
 
     /**
@@ -82,8 +167,12 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
      * @param isInstructor flag indicating if current user has instructor permissions
      */
     public LessonAdapter(List<LessonModel> lessonList, boolean isInstructor) {
-        this.lessonList = lessonList;
+        super(DIFF_CALLBACK);
         this.isInstructor = isInstructor;
+        setHasStableIds(true);
+        if (lessonList != null && !lessonList.isEmpty()) {
+            submitList(lessonList);
+        }
     }
 
     /**
@@ -95,6 +184,16 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
         this.listener = listener;
     }
 
+    /**
+     * Assigns a callback invoked when a row close to the end of the list is bound,
+     * used to load the next page of lessons.
+     *
+     * @param onNearEndListener Callback to run; may be called repeatedly, so it should be idempotent
+     */
+    public void setOnNearEndListener(Runnable onNearEndListener) {
+        this.onNearEndListener = onNearEndListener;
+    }
+
     @NonNull
     @Override
     public LessonViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -105,135 +204,16 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
 
     @Override
     public void onBindViewHolder(@NonNull LessonViewHolder holder, int position) {
-        LessonModel lesson = lessonList.get(position);
-        Log.d("ADAPTER", "📌 Binding lesson: " + lesson.getTitle() + ", isPast=" + lesson.isPast());
-
-
-
-        LocalStorageManager storage = new LocalStorageManager(holder.itemView.getContext());
+        LessonModel lesson = getItem(position);
+        AppLog.d(AppLog.Tag.ADAPTER, BIND_LOG, lesson);
 
-        // Set lesson details
-        holder.tvLessonTitle.setText(lesson.getTitle());
-        holder.tvLessonSubtitle.setText(lesson.getSubtitle());
-        // תיבת צפייה - סטטוס מהאחסון המקומי
-        holder.cbWatched.setChecked(storage.isWatched(lesson.getId()));
-
-        // Toggle watched state in local storage
-        holder.cbWatched.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            storage.setWatched(lesson.getId(), isChecked);
-        });
-        // Long press for deletion (only for instructors)
-        holder.itemView.setOnLongClickListener(v -> {
-            if (!isInstructor) return true; // רק מדריך יכול למחוק
-
-            new AlertDialog.Builder(holder.itemView.getContext())
-                    .setTitle("מחיקת שיעור")
-                    .setMessage("האם את/ה בטוח/ה שברצונך למחוק את השיעור?")
-                    .setPositiveButton("מחק", (dialog, which) -> {
-                        FirebaseFirestore.getInstance()
-                                .collection("lessons")
-                                .document(lesson.getId())
-                                .delete()
-                                .addOnSuccessListener(aVoid -> {
-                                    // מחיקת הסרטון
-                                    if (lesson.getVideoPath() != null) {
-                                        File file = new File(lesson.getVideoPath());
-                                        if (file.exists()) file.delete();
-                                    }
-
-                                    // הסרת השיעור מהרשימה
-                                    lessonList.remove(position);
-                                    notifyItemRemoved(position);
-                                    Toast.makeText(holder.itemView.getContext(), "השיעור נמחק", Toast.LENGTH_SHORT).show();
-                                })
-                                .addOnFailureListener(e ->
-                                        Toast.makeText(holder.itemView.getContext(), "שגיאה במחיקה", Toast.LENGTH_SHORT).show()
-                                );
-                    })
-                    .setNegativeButton("בטל", null)
-                    .show();
-
-            return true;
-        });
-
-        // Set icon dynamically
-        setLessonIcon(holder.ivLessonIcon, lesson.getIconId());
-
-
-        // לב: אם הזמן עבר
-        if (lesson.isPast()) {
-            holder.ivHeartButton.setImageResource(R.drawable.ic_heart_filled_black);
-            holder.ivHeartButton.setEnabled(false);
-        } else {
-            holder.ivHeartButton.setImageResource(
-                    lesson.isFavorite() ? R.drawable.ic_heart_filled : R.drawable.ic_heart_outline
-            );
-            holder.ivHeartButton.setEnabled(true);
-        }
-
-        String userId = UserManager.getUid();
-
-        if (UserManager.isFavorite(holder.itemView.getContext(), userId, lesson.getId())) {
-            holder.ivHeartButton.setImageResource(R.drawable.ic_heart_filled);
-            lesson.setFavorite(true);
-        } else {
-            holder.ivHeartButton.setImageResource(R.drawable.ic_heart_outline);
-            lesson.setFavorite(false);
+        if (onNearEndListener != null && position >= getItemCount() - NEAR_END_THRESHOLD) {
+            onNearEndListener.run();
         }
 
-        // Play button
-        holder.ivPlayButton.setOnClickListener(v -> {
-            Intent intent = new Intent(holder.itemView.getContext(), LessonDetailsActivity.class);
-            intent.putExtra("lesson", lesson); // lesson מממש Serializable
-            holder.itemView.getContext().startActivity(intent);
-            if (listener != null) {
-                listener.onPlayClick(lesson);
-            }
-        });
-
-        // Favorite (heart) toggle
-        holder.ivHeartButton.setOnClickListener(v -> {
-            if (!lesson.isPast()) {
-                boolean isNowFav = !lesson.isFavorite();
-                lesson.setFavorite(isNowFav);
-
-                if (isNowFav) {
-                    UserManager.saveFavorite(holder.itemView.getContext(), userId, lesson.getId());
-                } else {
-                    UserManager.removeFavorite(holder.itemView.getContext(), userId, lesson.getId());
-                }
-
-                notifyItemChanged(position);
-                if (listener != null) {
-                    listener.onHeartClick(lesson);
-
-                    // הוספה או הסרה לפי סטטוס
-                    if (lesson.isFavorite()) {
-                        saveFavoriteLessonToUser(lesson.getId());
-                    } else {
-                        removeFavoriteLessonFromUser(lesson.getId());
-                    }
-                }
-            }
-        });
-
-
-        // Click on item
-        holder.itemView.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onLessonClick(lesson);
-                Log.d("LessonAdapter", "✅ Clicked lesson: " + lesson.getTitle());
-
-            }
-        });
-
-        // Edit icon (visible only to instructors)
-        holder.editIcon.setOnClickListener(v -> {
-            Intent intent = new Intent(holder.itemView.getContext(), EditLessonActivity.class);
-            intent.putExtra("lesson", lesson); // נשלח את השיעור
-            holder.itemView.getContext().startActivity(intent);
-        });
-
+        bindMetadata(holder, lesson);
+        bindWatched(holder, lesson);
+        bindFavorite(holder, lesson);
 
         // כפתור עריכה רק למדריך
         // הצגת כפתור עריכה רק אם המשתמש הוא מדריך
@@ -247,42 +227,101 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
 
     }
 
-    private void setLessonIcon(ImageView iconView, String iconIdOrTitle) {
-        if (iconIdOrTitle == null || iconIdOrTitle.isEmpty()) {
-            iconView.setImageResource(R.drawable.person_icon); // ברירת מחדל
+    /**
+     * Applies {@link Change} payloads to the views they affect; falls back to a full bind when
+     * there are none.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull LessonViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
             return;
         }
+        LessonModel lesson = getItem(position);
+        for (Object payload : payloads) {
+            if (payload == Change.FAVORITE_CHANGED) {
+                bindFavorite(holder, lesson);
+            } else if (payload == Change.WATCHED_CHANGED) {
+                bindWatched(holder, lesson);
+            } else if (payload == Change.METADATA_CHANGED) {
+                bindMetadata(holder, lesson);
+            } else {
+                // Unknown payload: rebind the whole row
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+    }
 
-        // ננסה קודם להשתמש בשם האייקון (iconId)
-        int resId = iconView.getContext().getResources()
-                .getIdentifier(iconIdOrTitle, "drawable", iconView.getContext().getPackageName());
+    // Set lesson details and icon
+    private void bindMetadata(LessonViewHolder holder, LessonModel lesson) {
+        holder.tvLessonTitle.setText(lesson.getTitle());
+        holder.tvLessonSubtitle.setText(lesson.getSubtitle());
+        holder.ivLessonIcon.setImageResource(
+                LessonIconRegistry.resolve(holder.itemView.getContext(), lesson.getIconId()));
+    }
 
-        if (resId != 0) {
-            iconView.setImageResource(resId); // הצליח לפי iconId
+    // תיבת צפייה - סטטוס מהזיכרון (המאזין מתעלם משינוי שתואם את המצב)
+    private void bindWatched(LessonViewHolder holder, LessonModel lesson) {
+        holder.cbWatched.setChecked(userState.isWatched(lesson.getId()));
+    }
+
+    // לב: אם הזמן עבר
+    private void bindFavorite(LessonViewHolder holder, LessonModel lesson) {
+        if (lesson.isPast()) {
+            holder.ivHeartButton.setImageResource(R.drawable.ic_heart_filled_black);
+            holder.ivHeartButton.setEnabled(false);
         } else {
-            // fallback חכם לפי תוכן המחרוזת (כלומר כותרת השיעור)
-            String lower = iconIdOrTitle.toLowerCase();
-
-            if (lower.contains("basic")) {
-                iconView.setImageResource(R.drawable.basic_icon_image);
-            } else if (lower.contains("lead")) {
-                iconView.setImageResource(R.drawable.advanced_icon_image);
-            } else if (lower.contains("turn")) {
-                iconView.setImageResource(R.drawable.expert_icon_image);
-            } else {
-                iconView.setImageResource(R.drawable.icon_image_dance);
-            }
+            holder.ivHeartButton.setImageResource(
+                    userState.isFavorite(lesson.getId()) ? R.drawable.ic_heart_filled : R.drawable.ic_heart_outline
+            );
+            holder.ivHeartButton.setEnabled(true);
         }
     }
 
+    @Override
+    public long getItemId(int position) {
+        String key = keyOf(getItem(position));
+        Long id = itemIds.get(key);
+        if (id == null) {
+            id = nextItemId++;
+            itemIds.put(key, id);
+        }
+        return id;
+    }
 
+    /**
+     * Forgets the item ids of lessons no longer in the list, so the id map stays as large as the
+     * list while pages are loaded and trimmed. A lesson that comes back gets a new id.
+     */
     @Override
-    public int getItemCount() {
-        return lessonList != null ? lessonList.size() : 0;
+    public void onCurrentListChanged(@NonNull List<LessonModel> previousList,
+                                     @NonNull List<LessonModel> currentList) {
+        if (itemIds.size() <= currentList.size()) return;
+        Set<String> keys = new HashSet<>(currentList.size() * 2);
+        for (LessonModel lesson : currentList) {
+            keys.add(keyOf(lesson));
+        }
+        itemIds.keySet().retainAll(keys);
+    }
+
+    /**
+     * Identifies a lesson across list updates: its Firestore id, or for local lessons without one
+     * (e.g. demo rows) its time and title.
+     */
+    private static String keyOf(LessonModel lesson) {
+        String id = lesson.getId();
+        return id != null ? id : "local:" + Objects.toString(lesson.getTime()) + "/" + lesson.getTitle();
     }
 
     /**
      * ViewHolder pattern for lesson item layout.
+     *
+     * <p>Its listeners are created once, with the holder, and look up the adapter and lesson
+     * currently bound to the row ({@link #getBindingAdapter()}, {@link #getBindingAdapterPosition()})
+     * when they fire, so binding allocates no listeners, an action never hits a row that moved or
+     * was removed in the meantime, and holders can be shared between lists through a
+     * {@link RecyclerView.RecycledViewPool}.</p>
      */
     public static class LessonViewHolder extends RecyclerView.ViewHolder {
         TextView tvLessonTitle, tvLessonSubtitle;
@@ -300,36 +339,111 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
 
             editIcon = itemView.findViewById(R.id.btn_edit);
             cbWatched = itemView.findViewById(R.id.cb_watched); // ✅ הוספנו כאן
+
+            cbWatched.setOnCheckedChangeListener((buttonView, isChecked) -> onWatchedChanged(isChecked));
+            itemView.setOnLongClickListener(v -> onLongPress());
+            ivPlayButton.setOnClickListener(v -> onPlay());
+            ivHeartButton.setOnClickListener(v -> onHeart());
+            itemView.setOnClickListener(v -> onClick());
+            editIcon.setOnClickListener(v -> onEdit());
         }
-    }
-    /**
-     * Saves a lesson as a favorite for the current user in Firestore.
-     *
-     * @param lessonId lesson ID to save
-     */
-    public static void saveFavoriteLessonToUser(String lessonId) {
-        String userId = UserManager.getUid();
-        FirebaseFirestore.getInstance()
-                .collection("users")
-                .document(userId)
-                .collection("favorites")
-                .document(lessonId)
-                .set(new HashMap<String, Object>()); // אפשר לשים גם timestamp
-    }
 
-    /**
-     * Removes a lesson from the user's favorite list in Firestore.
-     *
-     * @param lessonId lesson ID to remove
-     */
-    public static void removeFavoriteLessonFromUser(String lessonId) {
-        String userId = UserManager.getUid();
-        FirebaseFirestore.getInstance()
-                .collection("users")
-                .document(userId)
-                .collection("favorites")
-                .document(lessonId)
-                .delete();
+        /** @return The adapter this row is bound to, or {@code null} while it is not bound */
+        private LessonAdapter boundAdapter() {
+            RecyclerView.Adapter<?> adapter = getBindingAdapter();
+            return adapter instanceof LessonAdapter ? (LessonAdapter) adapter : null;
+        }
+
+        /** @return The lesson bound to this row, or {@code null} while the row is being removed */
+        private LessonModel boundLesson() {
+            LessonAdapter adapter = boundAdapter();
+            int position = getBindingAdapterPosition();
+            return adapter != null && position != RecyclerView.NO_POSITION ? adapter.getItem(position) : null;
+        }
+
+        // Toggle watched state
+        private void onWatchedChanged(boolean isChecked) {
+            LessonAdapter adapter = boundAdapter();
+            LessonModel lesson = boundLesson();
+            // Binding sets the checkbox to the stored state; only user changes are saved
+            if (lesson == null || isChecked == adapter.userState.isWatched(lesson.getId())) return;
+            UserLessonState.getInstance(itemView.getContext()).setWatched(lesson.getId(), isChecked);
+        }
+
+        // Long press for deletion (only for instructors)
+        private boolean onLongPress() {
+            LessonAdapter adapter = boundAdapter();
+            if (adapter == null || !adapter.isInstructor) return true; // רק מדריך יכול למחוק
+            LessonModel lesson = boundLesson();
+            if (lesson == null) return true;
+
+            new AlertDialog.Builder(itemView.getContext())
+                    .setTitle("מחיקת שיעור")
+                    .setMessage("האם את/ה בטוח/ה שברצונך למחוק את השיעור?")
+                    .setPositiveButton("מחק", (dialog, which) -> deleteLesson(lesson))
+                    .setNegativeButton("בטל", null)
+                    .show();
+
+            return true;
+        }
+
+        private void deleteLesson(LessonModel lesson) {
+            // The shared lesson store drops the row right away and restores it if the write fails;
+            // the repository deletes the lesson's video copy as well
+            LessonRepository.getInstance(itemView.getContext())
+                    .deleteLesson(lesson.getId())
+                    .addOnSuccessListener(aVoid ->
+                            Toast.makeText(itemView.getContext(), "השיעור נמחק", Toast.LENGTH_SHORT).show())
+                    .addOnFailureListener(e ->
+                            Toast.makeText(itemView.getContext(), "שגיאה במחיקה", Toast.LENGTH_SHORT).show()
+                    );
+        }
+
+        // Play button
+        private void onPlay() {
+            LessonAdapter adapter = boundAdapter();
+            LessonModel lesson = boundLesson();
+            if (lesson == null) return;
+            Intent intent = new Intent(itemView.getContext(), LessonDetailsActivity.class);
+            LessonStore.putExtra(intent, lesson); // מעבירים מזהה בלבד
+            itemView.getContext().startActivity(intent);
+            if (adapter.listener != null) {
+                adapter.listener.onPlayClick(lesson);
+            }
+        }
+
+        // Favorite (heart) toggle
+        private void onHeart() {
+            LessonAdapter adapter = boundAdapter();
+            LessonModel lesson = boundLesson();
+            if (lesson == null || lesson.isPast()) return;
+            boolean isNowFav = !adapter.userState.isFavorite(lesson.getId());
+            // The heart is updated with a FAVORITE_CHANGED payload when the new state snapshot arrives;
+            // the remote write is batched by the favorites engine
+            UserLessonState.getInstance(itemView.getContext()).setFavorite(lesson.getId(), isNowFav);
+            if (adapter.listener != null) {
+                adapter.listener.onHeartClick(lesson);
+            }
+        }
+
+        // Click on item
+        private void onClick() {
+            LessonAdapter adapter = boundAdapter();
+            LessonModel lesson = boundLesson();
+            if (lesson != null && adapter.listener != null) {
+                adapter.listener.onLessonClick(lesson);
+                AppLog.d(AppLog.Tag.ADAPTER, () -> "✅ Clicked lesson: " + lesson.getTitle());
+            }
+        }
+
+        // Edit icon (visible only to instructors)
+        private void onEdit() {
+            LessonModel lesson = boundLesson();
+            if (lesson == null) return;
+            Intent intent = new Intent(itemView.getContext(), EditLessonActivity.class);
+            LessonStore.putExtra(intent, lesson); // נשלח את השיעור
+            itemView.getContext().startActivity(intent);
+        }
     }
 
 }
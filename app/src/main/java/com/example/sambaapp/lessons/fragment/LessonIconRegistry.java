@@ -0,0 +1,88 @@
+/**
+ * {@code LessonIconRegistry} maps a lesson's {@code iconId} to a drawable resource id.
+ *
+ * <p>The icons lessons are created with are listed in a fixed table, so resolving them is a plain
+ * map lookup. Any other value (e.g. an old lesson storing its title instead of an icon name) is
+ * resolved once, by resource name and then by keyword, and memoized, so
+ * {@link android.content.res.Resources#getIdentifier} never runs on the bind path twice for the
+ * same value.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * iconView.setImageResource(LessonIconRegistry.resolve(context, lesson.getIconId()));
+ * }</pre>
+ */
+package com.example.sambaapp.lessons.fragment;
+
+import android.content.Context;
+
+import androidx.annotation.DrawableRes;
+
+import com.example.sambaapp.R;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class LessonIconRegistry {
+
+    /** Shown for lessons without an icon */
+    @DrawableRes
+    private static final int DEFAULT_ICON = R.drawable.person_icon;
+    /** Shown when nothing matches an unknown icon id */
+    @DrawableRes
+    private static final int FALLBACK_ICON = R.drawable.icon_image_dance;
+
+    /** Known icon ids up front, memoized unknown ones added as they are first seen */
+    private static final Map<String, Integer> ICONS = new ConcurrentHashMap<>();
+
+    static {
+        ICONS.put("basic_icon_image", R.drawable.basic_icon_image);
+        ICONS.put("advanced_icon_image", R.drawable.advanced_icon_image);
+        ICONS.put("expert_icon_image", R.drawable.expert_icon_image);
+        ICONS.put("icon_image_dance", R.drawable.icon_image_dance);
+        ICONS.put("person_icon", R.drawable.person_icon);
+    }
+
+    private LessonIconRegistry() {
+    }
+
+    /**
+     * Returns the drawable to show for a lesson icon id.
+     *
+     * @param context Used only the first time an unknown id is seen
+     * @param iconId  The lesson's icon id (or, for older lessons, its title); may be null
+     * @return A drawable resource id; never 0
+     */
+    @DrawableRes
+    public static int resolve(Context context, String iconId) {
+        if (iconId == null || iconId.isEmpty()) {
+            return DEFAULT_ICON;
+        }
+        Integer resId = ICONS.get(iconId);
+        if (resId == null) {
+            resId = resolveUnknown(context, iconId);
+            ICONS.put(iconId, resId);
+        }
+        return resId;
+    }
+
+    private static int resolveUnknown(Context context, String iconId) {
+        // ננסה קודם להשתמש בשם האייקון (iconId)
+        int resId = context.getResources()
+                .getIdentifier(iconId, "drawable", context.getPackageName());
+        if (resId != 0) {
+            return resId;
+        }
+        // fallback לפי תוכן המחרוזת (כלומר כותרת השיעור)
+        String lower = iconId.toLowerCase(Locale.ROOT);
+        if (lower.contains("basic")) {
+            return R.drawable.basic_icon_image;
+        } else if (lower.contains("lead")) {
+            return R.drawable.advanced_icon_image;
+        } else if (lower.contains("turn")) {
+            return R.drawable.expert_icon_image;
+        }
+        return FALLBACK_ICON;
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * {@code LessonViewPoolHost} is implemented by activities that show several lesson lists (e.g.
+ * one {@link DayFragment} per level tab) and let them share one pool of lesson rows.
+ *
+ * <p>With a shared {@link RecyclerView.RecycledViewPool}, rows scrolled off one tab are reused by
+ * the next tab instead of inflating {@code item_lesson.xml} again. Lists attach to the pool in
+ * {@link DayFragment}; rows may be bound by any {@link LessonAdapter}, since
+ * {@link LessonAdapter.LessonViewHolder} resolves its adapter when its listeners fire.</p>
+ */
+package com.example.sambaapp.lessons.fragment;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+public interface LessonViewPoolHost {
+    /**
+     * @return The pool every lesson list of this host recycles its rows into
+     */
+    RecyclerView.RecycledViewPool getLessonViewPool();
+}
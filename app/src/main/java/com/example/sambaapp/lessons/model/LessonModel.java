@@ -1,11 +1,13 @@
 /**
  * Represents a lesson in the SambaApp, containing information such as title, time, description,
  * video link, user registration details, and associated metadata like level and icon.
- * Implements {@link Serializable} to allow easy passing between Android components.
+ * Implements {@link Serializable} for compatibility; screens pass lessons by id through
+ * {@link com.example.sambaapp.lessons.data.LessonStore} instead of serializing them.
  */
 package com.example.sambaapp.lessons.model;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 public class LessonModel implements Serializable {
     // Core lesson fields
@@ -180,4 +182,29 @@ public class LessonModel implements Serializable {
         this.videoPath = videoPath;
     }
 
+    /**
+     * Compares the persisted content of two lessons (everything stored in Firestore).
+     * The per-user {@code isFavorite} flag is intentionally ignored.
+     *
+     * @param other The lesson to compare with
+     * @return {@code true} if both lessons would display the same data
+     */
+    public boolean hasSameContent(LessonModel other) {
+        if (other == null) return false;
+        if (this == other) return true;
+        return registered == other.registered
+                && capacity == other.capacity
+                && isPast == other.isPast
+                && Objects.equals(id, other.id)
+                && Objects.equals(time, other.time)
+                && Objects.equals(title, other.title)
+                && Objects.equals(subtitle, other.subtitle)
+                && Objects.equals(description, other.description)
+                && Objects.equals(videoUri, other.videoUri)
+                && Objects.equals(videoPath, other.videoPath)
+                && Objects.equals(level, other.level)
+                && Objects.equals(iconId, other.iconId)
+                && Objects.equals(createdBy, other.createdBy);
+    }
+
 }
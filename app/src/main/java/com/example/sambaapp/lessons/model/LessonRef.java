@@ -0,0 +1,93 @@
+/**
+ * {@code LessonRef} is a compact, {@link Parcelable} reference to a lesson: its id plus the few
+ * fields a screen needs to draw its first frame (title, subtitle, icon and level).
+ *
+ * <p>Screens receive lessons by id and look them up in
+ * {@link com.example.sambaapp.lessons.data.LessonStore}. The ref travels in the Intent as a
+ * fallback for when that lookup misses, e.g. after the process was killed and the screen is
+ * restored; the full lesson is then loaded by id.</p>
+ */
+package com.example.sambaapp.lessons.model;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+public final class LessonRef implements Parcelable {
+
+    private final String id;
+    private final String title;
+    private final String subtitle;
+    private final String iconId;
+    private final String level;
+
+    private LessonRef(String id, String title, String subtitle, String iconId, String level) {
+        this.id = id;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.iconId = iconId;
+        this.level = level;
+    }
+
+    /**
+     * Creates a reference to the given lesson.
+     *
+     * @param lesson The lesson to reference
+     * @return A compact reference holding the lesson's id and summary fields
+     */
+    public static LessonRef of(LessonModel lesson) {
+        return new LessonRef(lesson.getId(), lesson.getTitle(), lesson.getSubtitle(),
+                lesson.getIconId(), lesson.getLevel());
+    }
+
+    /** @return The referenced lesson's id, or {@code null} for lessons not stored in Firestore */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Builds a summary {@link LessonModel} from this reference. Description and video fields are
+     * left empty; load the full lesson by id when they are needed.
+     *
+     * @return A new lesson holding the referenced summary fields
+     */
+    public LessonModel toLesson() {
+        LessonModel lesson = new LessonModel(null, title, subtitle, null, null,
+                0, 0, false, false, iconId, level);
+        lesson.setId(id);
+        return lesson;
+    }
+
+    private LessonRef(Parcel in) {
+        id = in.readString();
+        title = in.readString();
+        subtitle = in.readString();
+        iconId = in.readString();
+        level = in.readString();
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(id);
+        dest.writeString(title);
+        dest.writeString(subtitle);
+        dest.writeString(iconId);
+        dest.writeString(level);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    public static final Creator<LessonRef> CREATOR = new Creator<LessonRef>() {
+        @Override
+        public LessonRef createFromParcel(Parcel in) {
+            return new LessonRef(in);
+        }
+
+        @Override
+        public LessonRef[] newArray(int size) {
+            return new LessonRef[size];
+        }
+    };
+}
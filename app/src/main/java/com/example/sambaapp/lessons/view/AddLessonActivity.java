@@ -1,27 +1,32 @@
 /**
  * Activity responsible for adding a new lesson to the system.
  * Allows user to input time, description and pick a video.
- * The lesson is saved to Firestore and the video is saved locally.
+ * The lesson is saved to Firestore and the video is copied into internal storage in the
+ * background by {@link VideoImportWorker}; the copy continues after the screen is closed.
  *
  * Dependencies:
  * - Firebase Firestore (cloud storage for metadata)
  * - SharedPreferences (local user data)
  * - Internal Storage (video saving)
+ * - WorkManager (background video import)
  * - UserManager (user context)
  */
 
 package com.example.sambaapp.lessons.view;
 
+import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.util.Log;
+import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.ImageButton;
 import android.widget.ImageView;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 import android.widget.VideoView;
@@ -30,17 +35,18 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.lifecycle.LiveData;
+import androidx.work.WorkInfo;
 
+import com.example.sambaapp.core.AppLog;
+import com.example.sambaapp.core.AppPrefs;
 import com.example.sambaapp.core.LocalStorageManager;
 import com.example.sambaapp.R;
+import com.example.sambaapp.lessons.data.LessonRepository;
+import com.example.sambaapp.lessons.data.VideoImportWorker;
 import com.example.sambaapp.user.UserManager;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import android.content.pm.PackageManager;
@@ -48,8 +54,19 @@ import android.content.pm.PackageManager;
 public class AddLessonActivity extends AppCompatActivity {
 
     private static final int REQUEST_VIDEO_PICK = 100;
-    /** Uri of the selected video */
+    private static final String STATE_IMPORT_TARGET = "import_target";
+    private static final String STATE_SOURCE_URI = "source_uri";
+    private static final String STATE_LESSON_SAVED = "lesson_saved";
+    /** Uri of the selected video's local copy (may still be importing) */
     private Uri selectedVideoUri;
+    /** The local copy of the selected video */
+    private File importTarget;
+    /** The picked video, shown in the preview while it is being copied */
+    private Uri sourceUri;
+    /** Whether the lesson was saved; an unsaved video is discarded on leaving */
+    private boolean lessonSaved;
+    /** Progress of the video import */
+    private ProgressBar progressImport;
     /** User input fields */
     private EditText editTime, editDescription;
     /** VideoView for previewing selected video */
@@ -69,9 +86,8 @@ public class AddLessonActivity extends AppCompatActivity {
 
         // טען שם
         String name = UserManager.getName();
-        if (name == null || name.equals("Unknown")) {
-            name = getSharedPreferences("user_prefs", MODE_PRIVATE)
-                    .getString("user_name", "User");
+        if (name.equals("Unknown")) {
+            name = "User";
         }
         tvHeader.setText("Hello " + name);
         // Load user profile image from local storage
@@ -79,10 +95,10 @@ public class AddLessonActivity extends AppCompatActivity {
         UserManager.loadProfileImage(this, imgProfile);
 
         // Debug
-        String imagePath = getSharedPreferences("user_prefs", MODE_PRIVATE)
-                .getString("profile_image_path", null);
-        Log.d("PROFILE_DEBUG", "🔍 AddLesson - name: " + name);
-        Log.d("PROFILE_DEBUG", "🔍 AddLesson - image path: " + imagePath);
+        String userName = name;
+        AppLog.d(AppLog.Tag.PROFILE_DEBUG, () -> "🔍 AddLesson - name: " + userName);
+        AppLog.d(AppLog.Tag.PROFILE_DEBUG, () -> "🔍 AddLesson - image path: "
+                + AppPrefs.get(this, AppPrefs.USER).getString("profile_image_path", null));
 
         // Retrieve lesson level from Intent
         // קבלת הרמה מה-Intent
@@ -99,6 +115,7 @@ public class AddLessonActivity extends AppCompatActivity {
         btnPickVideo = findViewById(R.id.btn_pick_video);
         btnSave = findViewById(R.id.btn_save);
         btnCancel = findViewById(R.id.btn_cancel);
+        progressImport = findViewById(R.id.progress_video_import);
 
         // Enable looping on preview video
         videoPreview.setOnPreparedListener(mp -> mp.setLooping(true));
@@ -126,8 +143,36 @@ public class AddLessonActivity extends AppCompatActivity {
             }
         });
 
+        // After a rotation, find the running import again; it is discarded when leaving unsaved
+        if (savedInstanceState != null) {
+            lessonSaved = savedInstanceState.getBoolean(STATE_LESSON_SAVED);
+            String target = savedInstanceState.getString(STATE_IMPORT_TARGET);
+            if (target != null) {
+                importTarget = new File(target);
+                selectedVideoUri = Uri.fromFile(importTarget);
+                observeImport(VideoImportWorker.observe(this, importTarget));
+            }
+            String source = savedInstanceState.getString(STATE_SOURCE_URI);
+            if (source != null) {
+                sourceUri = Uri.parse(source);
+                showPreview();
+            }
+        }
+
         requestPermissionsIfNeeded();
     }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putBoolean(STATE_LESSON_SAVED, lessonSaved);
+        if (importTarget != null) {
+            outState.putString(STATE_IMPORT_TARGET, importTarget.getAbsolutePath());
+        }
+        if (sourceUri != null) {
+            outState.putString(STATE_SOURCE_URI, sourceUri.toString());
+        }
+    }
     /**
      * Opens the video picker intent to select video from gallery.
      */
@@ -138,32 +183,68 @@ public class AddLessonActivity extends AppCompatActivity {
     }
 
     /**
-     * Handles the result of video picker.
+     * Handles the result of video picker: previews the picked video right away and copies it
+     * into internal storage in the background, showing the copy's progress.
      */
     @Override
     protected void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
 
-        if (resultCode == RESULT_OK && requestCode == REQUEST_VIDEO_PICK && data != null) {
-            Uri sourceUri = data.getData();
-            Uri localUri = saveVideoLocally(sourceUri);
-            if (localUri != null) {
-                selectedVideoUri = localUri;
-                videoPreview.setVideoURI(localUri);
-                videoPreview.setOnPreparedListener(mp -> {
-                    mp.setLooping(true); // אם את רוצה שהווידאו ימשיך בלולאה
-                    videoPreview.seekTo(1); // תצוגה ראשונית של פריים ראשון
-                    videoPreview.start();   // התחלת ניגון
-                });
-
-            } else {
-                Toast.makeText(this, "Failed to save video locally", Toast.LENGTH_SHORT).show();
+        if (resultCode == RESULT_OK && requestCode == REQUEST_VIDEO_PICK && data != null && data.getData() != null) {
+            sourceUri = data.getData();
+            // A video picked before is no longer needed
+            if (importTarget != null) {
+                VideoImportWorker.discard(this, importTarget);
             }
+            importTarget = VideoImportWorker.newTargetFile(this);
+            selectedVideoUri = Uri.fromFile(importTarget);
+            observeImport(VideoImportWorker.enqueue(this, sourceUri, importTarget));
+            showPreview();
+        }
+    }
+
+    /** Shows the import's progress while it is still the selected video's import */
+    private void observeImport(LiveData<WorkInfo> importInfo) {
+        File target = importTarget;
+        importInfo.observe(this, info -> {
+            if (info == null || target != importTarget) return;
+            showImportProgress(info);
+        });
+    }
+
+    /** The preview plays the picked video itself while it is being copied */
+    private void showPreview() {
+        videoPreview.setVideoURI(sourceUri);
+        videoPreview.setOnPreparedListener(mp -> {
+            mp.setLooping(true); // אם את רוצה שהווידאו ימשיך בלולאה
+            videoPreview.seekTo(1); // תצוגה ראשונית של פריים ראשון
+            videoPreview.start();   // התחלת ניגון
+        });
+    }
+
+    /** Shows the video import's progress; a failed import clears the selected video */
+    private void showImportProgress(WorkInfo info) {
+        WorkInfo.State state = info.getState();
+        if (state == WorkInfo.State.FAILED || state == WorkInfo.State.CANCELLED) {
+            progressImport.setVisibility(View.GONE);
+            // Forget the failed import; the lesson was not saved with it
+            VideoImportWorker.discard(this, importTarget);
+            selectedVideoUri = null;
+            importTarget = null;
+            Toast.makeText(this, "Failed to save video locally", Toast.LENGTH_SHORT).show();
+        } else if (state.isFinished()) {
+            progressImport.setVisibility(View.GONE);
+        } else {
+            int percent = VideoImportWorker.percentOf(info);
+            progressImport.setVisibility(View.VISIBLE);
+            progressImport.setIndeterminate(percent < 0);
+            if (percent >= 0) progressImport.setProgress(percent);
         }
     }
 
     /**
-     * Saves lesson metadata to Firestore.
+     * Saves lesson metadata to Firestore. The lesson is added to the lists optimistically,
+     * so the screen closes without waiting for the write to be confirmed.
      *
      * @param videoPath the local path to the video file
      */
@@ -189,71 +270,47 @@ public class AddLessonActivity extends AppCompatActivity {
         lessonData.put("createdBy", UserManager.getUid());
 
         Log.d("ADD_LESSON", "Saving lesson with level: " + lessonLevel);
-
-        FirebaseFirestore.getInstance().collection("lessons")
-                .add(lessonData)
-                .addOnSuccessListener(docRef -> {
-                    Log.d("ADD_LESSON", "Lesson saved successfully with ID: " + docRef.getId());
+        // The video import (if still running) finishes after the screen closes
+        lessonSaved = true;
+
+        // The repository shows the lesson in the list right away and queues the lesson and its
+        // list summary as two outbox writes; a failed write removes it from the list again
+        LessonRepository repository = LessonRepository.getInstance(this);
+        String lessonId = repository.newLessonId();
+        // If the import does not finish, the lesson's video is cleared instead of pointing nowhere
+        VideoImportWorker.attachToLesson(this, importTarget, lessonId);
+        Context appContext = getApplicationContext();
+        repository.addLesson(lessonId, lessonData)
+                .addOnSuccessListener(aVoid -> {
+                    Log.d("ADD_LESSON", "Lesson saved successfully with ID: " + lessonId);
 
                     // Save locally
-                    new LocalStorageManager(this).addCreated(docRef.getId());
-
-                    // Notify success
-                    Toast.makeText(this, "Lesson saved!", Toast.LENGTH_SHORT).show();
-
-                    // Return result
-                    // החזרת תוצאה עם הרמה כדי שהמסך הקודם יוכל להתעדכן
-                    Intent resultIntent = new Intent();
-                    resultIntent.putExtra("lessonLevel", lessonLevel);
-                    resultIntent.putExtra("lessonAdded", true);
-                    resultIntent.putExtra("time", time);
-                    resultIntent.putExtra("title", title);
-                    resultIntent.putExtra("subtitle", subtitle);
-                    resultIntent.putExtra("description", description);
-                    resultIntent.putExtra("videoPath", videoPath);
-                    resultIntent.putExtra("iconId", "icon_image_dance"); // או מה שיש בפועל
-                    resultIntent.putExtra("lessonId", docRef.getId());
-                    resultIntent.putExtra("createdBy", UserManager.getUid());
-                    setResult(RESULT_OK, resultIntent);
-                    finish();
+                    new LocalStorageManager(appContext).addCreated(lessonId);
                 })
                 .addOnFailureListener(e -> {
                     Log.e("ADD_LESSON", "Failed to save lesson", e);
-                    Toast.makeText(this, "Save failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    Toast.makeText(appContext, "Save failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
-    }
-    /**
-     * Saves the selected video to internal app storage.
-     *
-     * @param sourceUri the URI of the selected video
-     * @return Uri of the saved local file, or null if failed
-     */
-    private Uri saveVideoLocally(Uri sourceUri) {
-        try {
-            InputStream in = getContentResolver().openInputStream(sourceUri);
-            File dir = new File(getFilesDir(), "videos");
-            if (!dir.exists()) dir.mkdirs();
-
-            String fileName = "lesson_" + System.currentTimeMillis() + ".mp4";
-            File outFile = new File(dir, fileName);
-            OutputStream out = new FileOutputStream(outFile);
-
-            byte[] buf = new byte[8192];
-            int len;
-            while ((len = in.read(buf)) > 0) {
-                out.write(buf, 0, len);
-            }
-            in.close();
-            out.close();
 
-            return Uri.fromFile(outFile);
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
-        }
+        // Notify success
+        Toast.makeText(this, "Lesson saved!", Toast.LENGTH_SHORT).show();
+
+        // Return result
+        // החזרת תוצאה עם הרמה כדי שהמסך הקודם יוכל להתעדכן
+        Intent resultIntent = new Intent();
+        resultIntent.putExtra("lessonLevel", lessonLevel);
+        resultIntent.putExtra("lessonAdded", true);
+        resultIntent.putExtra("time", time);
+        resultIntent.putExtra("title", title);
+        resultIntent.putExtra("subtitle", subtitle);
+        resultIntent.putExtra("description", description);
+        resultIntent.putExtra("videoPath", videoPath);
+        resultIntent.putExtra("iconId", "icon_image_dance"); // או מה שיש בפועל
+        resultIntent.putExtra("lessonId", lessonId);
+        resultIntent.putExtra("createdBy", UserManager.getUid());
+        setResult(RESULT_OK, resultIntent);
+        finish();
     }
-
-
     @Override
     public void onRequestPermissionsResult(int requestCode, String[] permissions, int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
@@ -291,4 +348,16 @@ public class AddLessonActivity extends AppCompatActivity {
         setResult(RESULT_CANCELED);
         finish();
     }
-}
\ No newline at end of file
+
+    /**
+     * Leaving without saving (Cancel, back or the system back gesture) discards the picked
+     * video, and stops its import if it is still running.
+     */
+    @Override
+    protected void onDestroy() {
+        if (isFinishing() && !lessonSaved && importTarget != null) {
+            VideoImportWorker.discard(this, importTarget);
+        }
+        super.onDestroy();
+    }
+}
@@ -16,6 +16,7 @@
  */
 package com.example.sambaapp.lessons.view;
 
+import android.content.Context;
 import android.content.Intent;
 import android.database.Cursor;
 import android.net.Uri;
@@ -31,12 +32,15 @@ import android.widget.Toast;
 import android.widget.VideoView;
 import android.widget.ImageView;
 
+import com.example.sambaapp.core.AppLog;
+import com.example.sambaapp.lessons.data.LessonRepository;
+import com.example.sambaapp.lessons.data.LessonStore;
 import com.example.sambaapp.lessons.model.LessonModel;
 import com.example.sambaapp.R;
+import com.example.sambaapp.user.AvatarLoader;
 import com.example.sambaapp.user.UserManager;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.example.sambaapp.user.UserProfileStore;
 
-import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -68,12 +72,10 @@ public class EditLessonActivity extends AppCompatActivity {
 
 
 
-        UserManager.loadProfileImage(this, profileImage);
-        if (profileImage.getDrawable() != null) {
-            Log.d("PROFILE_DEBUG", "תמונה נטענה ל־ImageView");
-        } else {
-            Log.d("PROFILE_DEBUG", "ImageView ריק");
-        }
+        // The large header avatar loads its own, 64dp variant
+        AvatarLoader.load(profileImage, UserProfileStore.getInstance(this).get(), AvatarLoader.Size.HEADER);
+        AppLog.d(AppLog.Tag.PROFILE_DEBUG,
+                () -> profileImage.getDrawable() != null ? "תמונה נטענה ל־ImageView" : "ImageView ריק");
 
         // UI fields binding
         etTitle = findViewById(R.id.et_title);
@@ -90,7 +92,7 @@ public class EditLessonActivity extends AppCompatActivity {
         Button btnUpload = findViewById(R.id.btn_upload);
 
         // Get lesson from Intent
-        lesson = (LessonModel) getIntent().getSerializableExtra("lesson");
+        lesson = LessonStore.fromIntent(getIntent());
 
         if (lesson != null) {
             etTitle.setText(lesson.getTitle());
@@ -104,6 +106,15 @@ public class EditLessonActivity extends AppCompatActivity {
             videoPreview.setVideoPath(lesson.getVideoUri());
             videoPreview.seekTo(1); // Show thumbnail preview
         }
+
+        // Lists only carry the lesson summary; load the full lesson for description and video
+        if (lesson != null && lesson.getId() != null) {
+            LessonRepository.getInstance(this)
+                    .getLessonDetails(lesson.getId())
+                    .addOnSuccessListener(this, this::bindFullLesson)
+                    .addOnFailureListener(this, e ->
+                            Log.e("EDIT_LESSON", "❌ Failed to load lesson details: " + e.getMessage()));
+        }
         btnSave.setOnClickListener(v -> {
             if (lesson != null) {
                 String newTitle = etTitle.getText().toString().trim();
@@ -120,17 +131,15 @@ public class EditLessonActivity extends AppCompatActivity {
                     data.put("videoUri", selectedVideoUri.toString());
                 }
 
-                FirebaseFirestore.getInstance()
-                        .collection("lessons")
-                        .document(lesson.getId())  // ודאי שיש Id ב־LessonModel
-                        .update(data)
-                        .addOnSuccessListener(aVoid -> {
-                            Toast.makeText(this, "שיעור עודכן!", Toast.LENGTH_SHORT).show();
-                            finish();
-                        })
+                // The lists show the change right away and roll it back if the write fails
+                Context appContext = getApplicationContext();
+                LessonRepository.getInstance(this)
+                        .updateLesson(lesson.getId(), data)  // ודאי שיש Id ב־LessonModel
                         .addOnFailureListener(e ->
-                                Toast.makeText(this, "עדכון נכשל: " + e.getMessage(), Toast.LENGTH_LONG).show()
+                                Toast.makeText(appContext, "עדכון נכשל: " + e.getMessage(), Toast.LENGTH_LONG).show()
                         );
+                Toast.makeText(this, "שיעור עודכן!", Toast.LENGTH_SHORT).show();
+                finish();
             }
         });
         ImageButton btnDelete = findViewById(R.id.btn_delete);
@@ -142,27 +151,17 @@ public class EditLessonActivity extends AppCompatActivity {
             }
 
             if (lesson != null) {
-                FirebaseFirestore.getInstance()
-                        .collection("lessons")
-                        .document(lesson.getId())
-                        .delete()
-                        .addOnSuccessListener(aVoid -> {
-                            // מחיקת סרטון מהאחסון
-                            if (lesson.getVideoPath() != null) {
-                                File file = new File(lesson.getVideoPath());
-                                if (file.exists() && file.delete()) {
-                                    Log.d("DELETE", "📹 הסרטון נמחק מהטלפון");
-                                } else {
-                                    Log.w("DELETE", "⚠️ לא הצליח למחוק את הסרטון");
-                                }
-                            }
-
-                            Toast.makeText(this, "השיעור נמחק", Toast.LENGTH_SHORT).show();
-                            finish();
-                        })
+                // The lists drop the lesson right away and get it back if the write fails;
+                // the repository deletes the lesson's video copy as well
+                Context appContext = getApplicationContext();
+                LessonRepository.getInstance(this)
+                        .deleteLesson(lesson.getId())
                         .addOnFailureListener(e -> {
-                            Toast.makeText(this, "שגיאה במחיקה: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                            Toast.makeText(appContext, "שגיאה במחיקה: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                         });
+
+                Toast.makeText(this, "השיעור נמחק", Toast.LENGTH_SHORT).show();
+                finish();
             }
         });
         // Upload new video
@@ -176,6 +175,24 @@ public class EditLessonActivity extends AppCompatActivity {
 
     }
 
+    /**
+     * Fills the fields the list summary does not carry once the full lesson is loaded.
+     * Text the user already typed is kept.
+     *
+     * @param full The full lesson from {@link LessonRepository#getLessonDetails(String)}
+     */
+    private void bindFullLesson(LessonModel full) {
+        // Work on the full lesson from now on; the summary is shared through LessonStore
+        lesson = full;
+        if (etDescription.getText().length() == 0) {
+            etDescription.setText(full.getDescription());
+        }
+        if (selectedVideoUri == null && lesson.getVideoUri() == null && full.getVideoUri() != null) {
+            videoPreview.setVideoPath(full.getVideoUri());
+            videoPreview.seekTo(1); // Show thumbnail preview
+        }
+    }
+
     /**
      * Converts URI to absolute file system path.
      *
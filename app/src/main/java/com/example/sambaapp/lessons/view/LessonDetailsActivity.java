@@ -6,7 +6,8 @@
  * at the top of the screen using {@link UserManager} utilities.
  *
  * <p>This activity is typically launched from the lesson list and expects a LessonModel
- * object via Intent extras.
+ * object via Intent extras. List rows only carry a lesson summary, so the full lesson
+ * (description, video path) is loaded by id through {@link LessonRepository}.
  *
  * <p><strong>Layout:</strong> {@code activity_lesson_details.xml}
  *
@@ -36,6 +37,10 @@ import android.widget.VideoView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.sambaapp.core.AppLog;
+import com.example.sambaapp.core.AppPrefs;
+import com.example.sambaapp.lessons.data.LessonRepository;
+import com.example.sambaapp.lessons.data.LessonStore;
 import com.example.sambaapp.lessons.model.LessonModel;
 import com.example.sambaapp.R;
 import com.example.sambaapp.user.UserManager;
@@ -48,6 +53,8 @@ public class LessonDetailsActivity extends AppCompatActivity {
     Button btnBack;
     TextView tvHeader;
     ImageView imgProfile;
+    /** Whether the video source was already set (the full lesson may arrive after the summary) */
+    private boolean videoStarted;
 
 
 
@@ -71,11 +78,10 @@ public class LessonDetailsActivity extends AppCompatActivity {
         tvHeader = findViewById(R.id.tv_header);
         imgProfile = findViewById(R.id.profile_image_view);
 
-        // Load user name (from UserManager or fallback to SharedPreferences)
+        // Load user name (from the user's profile, saved on the device)
         String name = UserManager.getName();
-        if (name == null || name.equals("Unknown")) {
-            name = getSharedPreferences("user_prefs", MODE_PRIVATE)
-                    .getString("user_name", "User");
+        if (name.equals("Unknown")) {
+            name = "User";
         }
         tvHeader.setText("Hello " + name);
 
@@ -84,30 +90,29 @@ public class LessonDetailsActivity extends AppCompatActivity {
 
 
         // Log user info for debugging
-        String imagePath = getSharedPreferences("user_prefs", MODE_PRIVATE)
-                .getString("profile_image_path", null);
-        Log.d("PROFILE_DEBUG", "🔍 Name from prefs: " + name);
-        Log.d("PROFILE_DEBUG", "🔍 Image path from prefs: " + imagePath);
+        String userName = name;
+        AppLog.d(AppLog.Tag.PROFILE_DEBUG, () -> "🔍 Name from prefs: " + userName);
+        AppLog.d(AppLog.Tag.PROFILE_DEBUG, () -> "🔍 Image path from prefs: "
+                + AppPrefs.get(this, AppPrefs.USER).getString("profile_image_path", null));
 
 
         // Get lesson object from intent
         Intent intent = getIntent();
         // קבלת הנתונים מה-Intent
-        LessonModel lesson = (LessonModel) getIntent().getSerializableExtra("lesson");
+        LessonModel lesson = LessonStore.fromIntent(intent);
 
         if (lesson != null) {
             Log.d("LessonDetails", "✔ lesson received: " + lesson.getTitle());
             Log.d("LessonDetails", "🆔 ID: " + lesson.getId()); // <-- בדקי שהוא לא null
-            // Display lesson content
-            title.setText(lesson.getTitle());
-            subtitle.setText(lesson.getSubtitle());
-            description.setText(lesson.getDescription());
-
-            // Setup and play video (if exists)
-            if (lesson.getVideoPath() != null && !lesson.getVideoPath().isEmpty()) {
-                videoView.setVideoURI(Uri.parse(lesson.getVideoPath()));
-                videoView.setOnPreparedListener(MediaPlayer::start);
-                videoView.setOnCompletionListener(mp -> videoView.start()); // לולאה אם את רוצה
+            bindLesson(lesson);
+
+            // Lists pass only the lesson summary; load description and video on demand
+            if (lesson.getId() != null) {
+                LessonRepository.getInstance(this)
+                        .getLessonDetails(lesson.getId())
+                        .addOnSuccessListener(this, this::bindLesson)
+                        .addOnFailureListener(this, e ->
+                                Log.e("LessonDetails", "❌ Failed to load lesson details: " + e.getMessage()));
             }
         }
 
@@ -115,4 +120,25 @@ public class LessonDetailsActivity extends AppCompatActivity {
         // Handle back button press
         btnBack.setOnClickListener(v -> finish());
     }
+
+    /**
+     * Displays the lesson content and starts its video once a video path is known.
+     *
+     * @param lesson The lesson summary from the list, or the full lesson once loaded
+     */
+    private void bindLesson(LessonModel lesson) {
+        title.setText(lesson.getTitle());
+        subtitle.setText(lesson.getSubtitle());
+        if (lesson.getDescription() != null) {
+            description.setText(lesson.getDescription());
+        }
+
+        // Setup and play video (if exists), once
+        if (!videoStarted && lesson.getVideoPath() != null && !lesson.getVideoPath().isEmpty()) {
+            videoStarted = true;
+            videoView.setVideoURI(Uri.parse(lesson.getVideoPath()));
+            videoView.setOnPreparedListener(MediaPlayer::start);
+            videoView.setOnCompletionListener(mp -> videoView.start()); // לולאה אם את רוצה
+        }
+    }
 }
@@ -11,9 +11,13 @@
  * <p>Additional features include user greeting, profile picture loading,
  * tab navigation with {@link ViewPager2} and {@link TabLayout}, and access to settings.
  *
+ * <p>The level tabs share one {@link RecyclerView.RecycledViewPool} ({@link LessonViewPoolHost}),
+ * the neighbouring tab is kept ready off screen, and a few lesson rows are inflated into the pool
+ * while the main thread is idle, so switching tabs reuses rows instead of inflating them.
+ *
  * <p><strong>Data Sources:</strong>
  * <ul>
- *   <li>User information and image path are loaded from {@link SharedPreferences}</li>
+ *   <li>User information and image path are observed from {@link UserProfileStore}</li>
  *   <li>Authentication state is checked using {@link FirebaseAuth}</li>
  * </ul>
  *
@@ -28,8 +32,9 @@ package com.example.sambaapp.lessons.view;
 
 
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.view.View;
 import android.widget.ImageButton;
 import android.widget.ImageView;
@@ -38,23 +43,32 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager2.adapter.FragmentStateAdapter;
 import androidx.viewpager2.widget.ViewPager2;
 
-import com.bumptech.glide.Glide;
 import com.example.sambaapp.lessons.fragment.DayFragment;
+import com.example.sambaapp.lessons.fragment.LessonAdapter;
+import com.example.sambaapp.lessons.fragment.LessonViewPoolHost;
 import com.example.sambaapp.R;
 import com.example.sambaapp.user.SettingsActivity;
 import com.example.sambaapp.user.UserManager;
+import com.example.sambaapp.user.UserProfile;
+import com.example.sambaapp.user.UserProfileStore;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.tabs.TabLayoutMediator;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
 
-import java.io.File;
+import java.util.Collections;
+
+public class LessonListActivity extends AppCompatActivity implements LessonViewPoolHost {
 
-public class LessonListActivity extends AppCompatActivity {
+    /** Rows the shared pool keeps per view type: about two screens of one tab */
+    private static final int POOL_SIZE = 12;
+    /** Rows inflated into the pool while idle, before the first tab switch */
+    private static final int PREWARMED_ROWS = 6;
 
     // UI components
     private TextView tvHelloUser;
@@ -65,11 +79,15 @@ public class LessonListActivity extends AppCompatActivity {
     private ViewPager2 viewPager;
     // Lesson level categories
     private final String[] levels = {"Beginners", "Advanced", "Expert"};
+    /** Lesson rows shared by the level tabs */
+    private final RecyclerView.RecycledViewPool lessonViewPool = new RecyclerView.RecycledViewPool();
+    /** Inflates {@link #PREWARMED_ROWS} rows into the pool, one per idle pass */
+    private MessageQueue.IdleHandler prewarmRows;
 
 
     /**
      * Initializes the lesson list screen: binds UI elements, sets up tabs,
-     * loads user data and profile picture, and handles navigation to
+     * observes the user's profile (name, picture, role), and handles navigation to
      * add new lessons and settings.
      *
      * @param savedInstanceState previous state, if available
@@ -79,9 +97,6 @@ public class LessonListActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_lesson_list);
 
-        // Load user name
-        String userName = UserManager.getName();
-
         // Bind views
         tvHelloUser = findViewById(R.id.tv_hello_user);
         ivProfile = findViewById(R.id.iv_profile);
@@ -91,27 +106,12 @@ public class LessonListActivity extends AppCompatActivity {
         viewPager = findViewById(R.id.view_pager);
 
 
-        // Load profile image from SharedPreferences
-        String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
-        String imagePath = getSharedPreferences("user_prefs", MODE_PRIVATE)
-                .getString("profile_image_path_" + uid, null);
-
-        if (imagePath != null && !imagePath.isEmpty()) {
-            Glide.with(this)
-                    .load(imagePath)
-                    .placeholder(R.drawable.profile_placeholder)
-                    .circleCrop()
-                    .into(ivProfile);
-        } else {
-            ivProfile.setImageResource(R.drawable.profile_placeholder);
-        }
-
-        // Greet user by name
-        if (userName != null) {
-            tvHelloUser.setText("Hello " + userName + "!");
-        }
+        // Greeting, profile picture and the Add button follow the user's profile
+        UserProfileStore.getInstance(this).getProfile().observe(this, this::showProfile);
 
-        // Set up ViewPager with tabs
+        // Set up ViewPager with tabs; the neighbouring tab is created ahead of a swipe
+        lessonViewPool.setMaxRecycledViews(0, POOL_SIZE);
+        viewPager.setOffscreenPageLimit(1);
         viewPager.setAdapter(new FragmentStateAdapter(this) {
             @NonNull
             @Override
@@ -147,51 +147,49 @@ public class LessonListActivity extends AppCompatActivity {
             startActivity(intent);
         });
 
+        prewarmRows = createRowPrewarmer();
+        Looper.myQueue().addIdleHandler(prewarmRows);
+    }
 
+    @Override
+    public RecyclerView.RecycledViewPool getLessonViewPool() {
+        return lessonViewPool;
+    }
+
+    @Override
+    protected void onDestroy() {
+        Looper.myQueue().removeIdleHandler(prewarmRows);
+        super.onDestroy();
     }
+
     /**
-     * Reloads user data and profile image when the activity resumes.
-     * Also verifies the user's role to determine visibility of the Add button.
+     * Creates an idle handler that inflates lesson rows into {@link #lessonViewPool}, one per
+     * idle pass so it never holds up a frame, until the pool has {@link #PREWARMED_ROWS} rows.
      */
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Refresh user info from SharedPreferences into UserManager
-        SharedPreferences prefs = getSharedPreferences("user_prefs", MODE_PRIVATE);
-        String name = prefs.getString("user_name", null);
-        String age = prefs.getString("user_age", null);
-        String email = prefs.getString("user_email", null);
-        String role = prefs.getString("user_role", null);
-        if (name != null && age != null && email != null && role != null) {
-            UserManager.setUserInfo(name, age, email, role);
-        }
-        // Reload profile image
-        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
-        String uid = user != null ? user.getUid() : "";
-        String imagePath = getSharedPreferences("user_prefs", MODE_PRIVATE)
-                .getString("profile_image_path_" + uid, null);
-
-        if (imagePath != null && !imagePath.isEmpty()) {
-            File file = new File(imagePath);
-            if (file.exists()) {
-                Glide.with(this)
-                        .load(file)
-                        .placeholder(R.drawable.profile_placeholder)
-                        .circleCrop()
-                        .into(ivProfile);
-            } else {
-                // קובץ לא קיים - מחזיר לברירת מחדל
-                ivProfile.setImageResource(R.drawable.profile_placeholder);
+    private MessageQueue.IdleHandler createRowPrewarmer() {
+        // Rows take their layout params from a RecyclerView parent; this one is never shown
+        RecyclerView parent = new RecyclerView(this);
+        parent.setLayoutManager(new LinearLayoutManager(this));
+        LessonAdapter inflater = new LessonAdapter(Collections.emptyList(), UserManager.isInstructor());
+        return () -> {
+            if (isFinishing() || lessonViewPool.getRecycledViewCount(0) >= PREWARMED_ROWS) {
+                return false;
             }
-        } else {
-            ivProfile.setImageResource(R.drawable.profile_placeholder);
-        }
-        // Check instructor role to control Add button visibility
-        boolean isInstructor = UserManager.isInstructor();
-        fabAdd.setVisibility(isInstructor ? View.VISIBLE : View.GONE);
+            lessonViewPool.putRecycledView(inflater.createViewHolder(parent, 0));
+            return lessonViewPool.getRecycledViewCount(0) < PREWARMED_ROWS;
+        };
     }
-    }
-
-
+    /**
+     * Shows a new profile snapshot: greeting, profile image
+     * and the Add button, which is visible to instructors only.
+     */
+    private void showProfile(UserProfile profile) {
+        tvHelloUser.setText("Hello " + profile.getName() + "!");
 
+        // Keyed by the image version: an unchanged image comes from Glide's memory cache
+        UserManager.loadProfileImage(ivProfile, profile);
 
+        // Check instructor role to control Add button visibility
+        fabAdd.setVisibility(profile.isInstructor() ? View.VISIBLE : View.GONE);
+    }
+}
@@ -11,7 +11,8 @@
  * <ul>
  *   <li>Tabbed navigation using {@link LessonPagerAdapter}</li>
  *   <li>Launching {@link AddLessonActivity} to create new lessons</li>
- *   <li>Auto-refreshing the corresponding fragment when a new lesson is added</li>
+ *   <li>Switching to the new lesson's tab when a lesson is added; the lesson itself is already
+ *       shown optimistically by {@link com.example.sambaapp.lessons.data.LessonRepository}</li>
  * </ul>
  *
  * Example usage:
@@ -32,10 +33,8 @@
     import androidx.appcompat.app.AppCompatActivity;
     import androidx.viewpager2.widget.ViewPager2;
 
-    import com.example.sambaapp.lessons.model.LessonModel;
     import com.example.sambaapp.lessons.adapter.LessonPagerAdapter;
     import com.example.sambaapp.R;
-    import com.example.sambaapp.core.RefreshableFragment;
     import com.google.android.material.floatingactionbutton.FloatingActionButton;
     import com.google.android.material.tabs.TabLayout;
     import com.google.android.material.tabs.TabLayoutMediator;
@@ -90,7 +89,8 @@
 
         /**
          * Handles the result returned from {@link AddLessonActivity}.
-         * If a lesson was added, refreshes the relevant fragment to show the new lesson.
+         * The new lesson is already in the shared lesson store, so no reload is needed;
+         * the pager just switches to the lesson's level.
          */
         private final ActivityResultLauncher<Intent> addLessonLauncher =
                 registerForActivityResult(new ActivityResultContracts.StartActivityForResult(), result -> {
@@ -99,27 +99,7 @@
                         String level = data.getStringExtra("lessonLevel");
                         boolean added = data.getBooleanExtra("lessonAdded", false);
                         if (added && level != null) {
-                            // Construct new LessonModel from returned data
-                            LessonModel newLesson = new LessonModel(
-                                    data.getStringExtra("time"),
-                                    data.getStringExtra("title"),
-                                    data.getStringExtra("subtitle"),
-                                    data.getStringExtra("description"),
-                                    data.getStringExtra("videoPath"),
-                                    0,
-                                    20,
-                                    false,
-                                    false,
-                                    data.getStringExtra("iconId"),
-                                    level // ✅
-                            );
-
-                            newLesson.setId(data.getStringExtra("lessonId"));
-                            newLesson.setCreatedBy(data.getStringExtra("createdBy"));
-
-
-                            refreshFragmentByLevel(level);
-
+                            showLevel(level);
                         }
                     }
                 });
@@ -144,20 +124,14 @@
         }
 
         /**
-         * Refreshes the corresponding fragment's lesson list based on the provided level.
-         * This triggers a data reload via {@link RefreshableFragment#refreshLessons()}.
+         * Switches the pager to the tab of the given lesson level.
          *
-         * @param level The lesson level of the fragment to be refreshed.
+         * @param level The lesson level to show ("Beginners", "Advanced" or "Expert").
          */
-        private void refreshFragmentByLevel(String level) {
-            if (adapter == null) return;
-
-            if ("Beginners".equals(level) && adapter.getBeginnerFragment() instanceof RefreshableFragment) {
-                ((RefreshableFragment) adapter.getBeginnerFragment()).refreshLessons();
-            } else if ("Advanced".equals(level) && adapter.getAdvancedFragment() instanceof RefreshableFragment) {
-                ((RefreshableFragment) adapter.getAdvancedFragment()).refreshLessons();
-            } else if ("Expert".equals(level) && adapter.getExpertFragment() instanceof RefreshableFragment) {
-                ((RefreshableFragment) adapter.getExpertFragment()).refreshLessons();
+        private void showLevel(String level) {
+            int index = LessonViewModel.LEVELS.indexOf(level);
+            if (index >= 0) {
+                viewPager.setCurrentItem(index);
             }
         }
 
@@ -2,45 +2,119 @@
  * {@code LessonViewModel} is a ViewModel responsible for retrieving, caching,
  * and exposing lesson data grouped by difficulty level using LiveData.
  *
- * <p>It interacts with Firebase Firestore to fetch lesson documents and
- * maintains a map of {@link LiveData} for each level (e.g., "Beginners", "Advanced", "Expert").</p>
+ * <p>It reads lessons through {@link LessonRepository}, which serves the on-device cache first
+ * and revalidates against Firebase Firestore, and maintains a map of {@link LiveData} for each
+ * level (e.g., "Beginners", "Advanced", "Expert"). Documents are mapped on a background thread
+ * and published as unmodifiable lists with {@code postValue}.</p>
  *
  * <p>Features:</p>
  * <ul>
  *     <li>Fetch lessons from Firestore filtered by level</li>
  *     <li>Expose reactive {@link LiveData} to observe lessons from the UI</li>
+ *     <li>Keep a single real-time snapshot listener for all {@link #LEVELS} attached while any
+ *         level is observed, so returning to a screen or another instructor's edit never needs
+ *         a full refetch</li>
+ *     <li>Load long levels page by page ({@link #loadNextPage}) and drop pages far from the
+ *         viewport ({@link #trimLevel}) so memory stays bounded</li>
  *     <li>Manually refresh lessons per level</li>
- *     <li>Support adding new lessons directly to LiveData</li>
+ *     <li>Show added, edited and deleted lessons right away; {@link LessonRepository} applies
+ *         writes optimistically and rolls them back if Firestore rejects them</li>
  * </ul>
  *
- * <p>This ViewModel is used in activities like {@link LessonViewActivity}
- * to observe lesson updates and refresh the UI accordingly.</p>
+ * <p>This ViewModel is meant to be scoped to the hosting activity
+ * ({@code new ViewModelProvider(requireActivity())} from fragments), so every level tab of
+ * {@link LessonListActivity} is served from one shared query and one copy of the lesson state.
+ * It is also used in activities like {@link LessonViewActivity}.</p>
  *
  * @author Elinor
  */
 package com.example.sambaapp.lessons.view;
 
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
 
+import com.example.sambaapp.core.AppLog;
+import com.example.sambaapp.lessons.data.LessonFeed;
+import com.example.sambaapp.lessons.data.LessonRepository;
+import com.example.sambaapp.lessons.data.RefreshStats;
 import com.example.sambaapp.lessons.model.LessonModel;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.example.sambaapp.user.UserManager;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 
-import android.util.Log;
+public class LessonViewModel extends AndroidViewModel {
 
-public class LessonViewModel extends ViewModel {
+    /** Levels served by the shared listener, in tab order */
+    public static final List<String> LEVELS =
+            Collections.unmodifiableList(Arrays.asList("Beginners", "Advanced", "Expert"));
+    /**
+     * How long the snapshot listener stays attached after the last observed level stops,
+     * so short trips (rotation, opening lesson details) don't churn listeners.
+     */
+    private static final long LISTENER_GRACE_MS = 60_000;
+    /** Pages kept loaded below the last visible row before older pages are dropped */
+    private static final int PAGES_KEPT_BELOW_VIEWPORT = 2;
 
-    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
-    private final Map<String, MutableLiveData<List<LessonModel>>> lessonsMap = new HashMap<>();
+    private final LessonRepository repository;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    /** Per-level LiveData; concurrent because the repository reads it from its background thread */
+    private final Map<String, LevelLiveData> lessonsMap = new ConcurrentHashMap<>();
+    private final Runnable detachRunnable = this::detachListener;
+    /** Paged real-time feed covering every level in {@link #LEVELS}; created on first observation */
+    private LessonFeed feed;
+    /** Number of level LiveData objects that currently have active observers */
+    private int activeLevels;
     private String currentLevel = ""; // Tracks the current level being loaded
 
+    public LessonViewModel(@NonNull Application application) {
+        super(application);
+        repository = LessonRepository.getInstance(application);
+        // Lessons created before list summaries existed need one; only instructors may write them
+        if (UserManager.isInstructor()) {
+            repository.backfillSummariesOnce();
+        }
+        // All shared levels exist up front so one snapshot can be bucketed into every tab
+        for (String level : LEVELS) {
+            getLessonsByLevel(level);
+        }
+    }
+
+    /**
+     * Returns LiveData containing a list of lessons for the given level.
+     * Cached lessons are published right away; while any level is observed a single
+     * Firestore snapshot listener keeps all {@link #LEVELS} up to date. Levels outside
+     * {@link #LEVELS} are served from the cache and refreshed with a one-shot fetch.
+     *
+     * @param level The lesson level (e.g., "Beginners", "Advanced", "Expert")
+     * @return LiveData containing list of lessons
+     */
+    public LiveData<List<LessonModel>> getLessonsByLevel(String level) {
+        LevelLiveData liveData = lessonsMap.get(level);
+        if (liveData == null) {
+            LevelLiveData created = new LevelLiveData(level);
+            liveData = lessonsMap.putIfAbsent(level, created);
+            if (liveData != null) return liveData;
+            liveData = created;
+            if (LEVELS.contains(level)) {
+                repository.serveCached(level, liveData);
+            } else {
+                repository.loadLessons(level, liveData);
+            }
+        }
+        return liveData;
+    }
+
     /**
      * Returns LiveData containing a list of lessons for the given level.
      * Optionally forces refresh from Firestore.
@@ -50,93 +124,136 @@ public class LessonViewModel extends ViewModel {
      * @return LiveData containing list of lessons
      */
     public LiveData<List<LessonModel>> getLessonsByLevel(String level, boolean forceRefresh) {
-        if (!lessonsMap.containsKey(level)) {
-            lessonsMap.put(level, new MutableLiveData<>());
-        }
+        LiveData<List<LessonModel>> liveData = getLessonsByLevel(level);
         if (forceRefresh) {
-            loadLessons(level);
+            refresh(level);
         }
-        return lessonsMap.get(level);
+        return liveData;
     }
 
 
 
     /**
-     * Fetches lessons from Firebase Firestore filtered by the specified level
-     * and updates the corresponding LiveData.
+     * Loads lessons of the specified level through the {@link LessonRepository}: cached rows
+     * are published immediately and then revalidated against Firestore in the background.
      *
      * @param level The lesson level to fetch
      */
     private void loadLessons(String level) {
-        Log.d("LESSON_VIEW_MODEL", "🔄 Loading lessons for level: " + level);
-        db.collection("lessons")
-                .whereEqualTo("level", level)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<LessonModel> lessons = new ArrayList<>();
-                    for (DocumentSnapshot doc : querySnapshot) {
-                        LessonModel lesson = new LessonModel(
-                                doc.getString("time"),
-                                doc.getString("title"),
-                                doc.getString("subtitle"),
-                                doc.getString("description"),
-                                doc.getString("videoPath"),
-                                doc.getLong("likes") != null ? doc.getLong("likes").intValue() : 0,
-                                doc.getLong("maxParticipants") != null ? doc.getLong("maxParticipants").intValue() : 0,
-                                false, false,
-                                doc.getString("iconId"),
-                                doc.getString("level")
-                        );
-                        lesson.setLevel(doc.getString("level"));
-                        lesson.setId(doc.getId());
-                        lesson.setVideoPath(doc.getString("videoPath"));
-                        lesson.setCreatedBy(doc.getString("createdBy"));
-                        Log.d("LESSON_VIEW_MODEL", "👀 isPast=" + lesson.isPast() + ", title=" + lesson.getTitle());
-                        Log.d("LESSON_VIEW_MODEL", "✅ Lesson loaded: " + doc.getString("title") + ", level: " + doc.getString("level"));
-
-                        lessons.add(lesson);
-                    }
-                    if (lessonsMap.containsKey(level)) {
-                        lessonsMap.get(level).setValue(lessons);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e("LESSON_VIEW_MODEL", "❌ Error loading lessons: " + e.getMessage());
-                    if (lessonsMap.containsKey(level)) {
-                        lessonsMap.get(level).setValue(new ArrayList<>());
-                    }
-                });
+        AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "🔄 Loading lessons for level: " + level);
+        MutableLiveData<List<LessonModel>> liveData = lessonsMap.get(level);
+        if (liveData == null) return;
+        repository.loadLessons(level, liveData);
     }
 
     /**
-     * Adds a single lesson to the existing LiveData list for the given level.
-     * This is useful when adding a lesson locally without refetching from Firestore.
+     * Requests the next page of a level, typically when the list nears its end.
+     * Ignored while a page is already loading or when the level has no more lessons.
      *
-     * @param level  The level to which the lesson belongs
-     * @param lesson The lesson to add
+     * @param level The level to extend
      */
-    public void addLessonDirectly(String level, LessonModel lesson) {
-        MutableLiveData<List<LessonModel>> liveData = lessonsMap.get(level);
-        if (liveData == null) return;
-
-        List<LessonModel> currentList = liveData.getValue();
-        if (currentList == null) currentList = new ArrayList<>();
-
-        List<LessonModel> newList = new ArrayList<>(currentList);
-        newList.add(lesson);
-        liveData.setValue(newList);
+    public void loadNextPage(String level) {
+        if (feed != null && LEVELS.contains(level)) {
+            feed.loadNextPage(level);
+        }
     }
 
+    /**
+     * Drops pages of a level that are far below the last visible row, keeping memory bounded
+     * for long catalogs. Dropped pages are loaded again when the user scrolls back down.
+     *
+     * @param level               The level shown in the list
+     * @param lastVisiblePosition Adapter position of the last visible row
+     */
+    public void trimLevel(String level, int lastVisiblePosition) {
+        if (feed != null && LEVELS.contains(level)) {
+            feed.trim(level, lastVisiblePosition + 1 + PAGES_KEPT_BELOW_VIEWPORT * LessonFeed.PAGE_SIZE);
+        }
+    }
 
     /**
      * Manually refreshes lesson data from Firestore for the specified level.
+     * Shared levels are already live, so only their loaded pages are re-read.
+     * Refreshes are coalesced per level: one arriving while a load is in flight joins it,
+     * and repeated refreshes within a short interval are skipped.
      *
      * @param level The level to refresh
      */
     public void refresh(String level) {
-        Log.d("LESSON_VIEW_MODEL", "🔄 Manual refresh for level: " + level);
+        AppLog.d(AppLog.Tag.LESSON_VIEW_MODEL, () -> "🔄 Manual refresh for level: " + level);
         currentLevel = level; // עדכון הרמה הנוכחית
-        loadLessons(level);
+        if (LEVELS.contains(level)) {
+            if (feed != null) feed.refresh(level);
+        } else {
+            loadLessons(level);
+        }
+    }
+
+    /**
+     * Returns how many refreshes issued a Firestore query and how many duplicates were avoided.
+     *
+     * @return A snapshot of the repository's refresh counters
+     */
+    public RefreshStats getRefreshStats() {
+        return repository.getRefreshStats();
+    }
+
+    /**
+     * Detaches the snapshot listener when the owning screen is gone for good.
+     */
+    @Override
+    protected void onCleared() {
+        detachListener();
+        feed = null;
+        super.onCleared();
+    }
+
+    private void onLevelActive(String level) {
+        if (!LEVELS.contains(level)) return;
+        activeLevels++;
+        mainHandler.removeCallbacks(detachRunnable);
+        if (feed == null) {
+            feed = repository.openFeed(LEVELS, lessonsMap);
+        }
+        feed.start();
+    }
+
+    private void onLevelInactive(String level) {
+        if (!LEVELS.contains(level)) return;
+        activeLevels--;
+        if (activeLevels == 0) {
+            mainHandler.postDelayed(detachRunnable, LISTENER_GRACE_MS);
+        }
+    }
+
+    private void detachListener() {
+        mainHandler.removeCallbacks(detachRunnable);
+        if (feed != null) {
+            feed.stop();
+        }
+    }
+
+    /**
+     * Per-level LiveData that reports its active state to the ViewModel, which keeps the shared
+     * listener attached while any level is observed and detaches it {@link #LISTENER_GRACE_MS}
+     * after the last one stops.
+     */
+    private class LevelLiveData extends MutableLiveData<List<LessonModel>> {
+        private final String level;
+
+        LevelLiveData(String level) {
+            this.level = level;
+        }
+
+        @Override
+        protected void onActive() {
+            onLevelActive(level);
+        }
+
+        @Override
+        protected void onInactive() {
+            onLevelInactive(level);
+        }
     }
 
-}
\ No newline at end of file
+}
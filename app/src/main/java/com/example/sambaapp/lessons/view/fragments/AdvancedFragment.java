@@ -2,8 +2,8 @@
  * Fragment responsible for displaying lessons categorized under the "Advanced" level.
  *
  * This fragment observes the LiveData from LessonViewModel and updates the RecyclerView
- * accordingly. It supports refreshing the list of lessons either when resumed or manually
- * through the {@link RefreshableFragment} interface.
+ * accordingly. The list is kept live by the ViewModel's snapshot listener and can also be
+ * refreshed manually through the {@link RefreshableFragment} interface.
  *
  * Architecture:
  * - MVVM (Model-View-ViewModel)
@@ -33,6 +33,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.sambaapp.lessons.fragment.LessonAdapter;
 import com.example.sambaapp.R;
 import com.example.sambaapp.core.RefreshableFragment;
+import com.example.sambaapp.user.UserLessonState;
 import com.example.sambaapp.user.UserManager;
 import com.example.sambaapp.lessons.view.LessonViewModel;
 
@@ -45,7 +46,7 @@ public class AdvancedFragment extends Fragment implements RefreshableFragment {
     private RecyclerView recyclerView;
     /** Adapter for binding lessons to RecyclerView */
     private LessonAdapter adapter;
-    /** Dedicated ViewModel for this fragment */
+    /** Activity-scoped ViewModel shared with the other level tabs */
     private LessonViewModel lessonViewModel;
 
 
@@ -62,7 +63,7 @@ public class AdvancedFragment extends Fragment implements RefreshableFragment {
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        viewModel = new ViewModelProvider(this).get(LessonViewModel.class);
+        viewModel = new ViewModelProvider(requireActivity()).get(LessonViewModel.class);
     }
 
     /**
@@ -82,14 +83,19 @@ public class AdvancedFragment extends Fragment implements RefreshableFragment {
         // Create adapter - pass whether the user is an instructor to allow editing
         adapter = new LessonAdapter(new ArrayList<>(), UserManager.isInstructor());
         recyclerView.setAdapter(adapter);
+        // Favorite and watched marks come from the in-memory user state
+        UserLessonState.getInstance(requireContext()).getSnapshots().observe(getViewLifecycleOwner(), adapter::setUserState);
 
-        // Create ViewModel instance
-        lessonViewModel = new ViewModelProvider(this).get(LessonViewModel.class);
+        // Obtain the activity-scoped ViewModel shared by all level tabs
+        lessonViewModel = new ViewModelProvider(requireActivity()).get(LessonViewModel.class);
 
         // Observe LiveData of advanced-level lessons and update adapter when changed
-        lessonViewModel.getLessonsByLevel("Advanced",true).observe(getViewLifecycleOwner(), lessons -> {
+        lessonViewModel.getLessonsByLevel("Advanced").observe(getViewLifecycleOwner(), lessons -> {
             adapter.updateList(lessons);
         });
+
+        // Load the next page when the list nears its end
+        adapter.setOnNearEndListener(() -> lessonViewModel.loadNextPage("Advanced"));
     }
     /**
      * Refreshes the lesson list manually.
@@ -100,17 +106,6 @@ public class AdvancedFragment extends Fragment implements RefreshableFragment {
             lessonViewModel.refresh("Advanced");
         }
     }
-    /**
-     * Lifecycle method - called when the fragment becomes visible again.
-     * Refreshes the lessons automatically to ensure updated data.
-     */
-    @Override
-    public void onResume() {
-        super.onResume();
-        if (lessonViewModel != null) {
-            lessonViewModel.refresh("Advanced");
-        }
-    }
     /**
      * Returns the ViewModel instance associated with this fragment.
      *
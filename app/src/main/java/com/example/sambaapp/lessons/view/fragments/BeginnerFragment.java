@@ -28,10 +28,12 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.sambaapp.lessons.data.LessonStore;
 import com.example.sambaapp.lessons.fragment.LessonAdapter;
 import com.example.sambaapp.lessons.model.LessonModel;
 import com.example.sambaapp.R;
 import com.example.sambaapp.core.RefreshableFragment;
+import com.example.sambaapp.user.UserLessonState;
 import com.example.sambaapp.user.UserManager;
 import com.example.sambaapp.media.VideoPlayerActivity;
 import com.example.sambaapp.lessons.view.LessonViewModel;
@@ -61,9 +63,9 @@ public class BeginnerFragment extends Fragment implements RefreshableFragment {
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        // Initialize ViewModel only once (recommended pattern)
+        // Use the activity-scoped ViewModel so all level tabs share one lesson query
         // יצירת ViewModel פעם אחת ב-onCreate
-        lessonViewModel = new ViewModelProvider(this).get(LessonViewModel.class);
+        lessonViewModel = new ViewModelProvider(requireActivity()).get(LessonViewModel.class);
     }
 
     /**
@@ -84,6 +86,8 @@ public class BeginnerFragment extends Fragment implements RefreshableFragment {
         // Create adapter with instructor role awareness
         adapter = new LessonAdapter(new ArrayList<>(), UserManager.isInstructor());
         recyclerView.setAdapter(adapter);
+        // Favorite and watched marks come from the in-memory user state
+        UserLessonState.getInstance(requireContext()).getSnapshots().observe(getViewLifecycleOwner(), adapter::setUserState);
         Log.d("UI", "✅ Adapter set!");
 
         // Adapter click listeners
@@ -92,7 +96,7 @@ public class BeginnerFragment extends Fragment implements RefreshableFragment {
             public void onPlayClick(LessonModel lesson) {
                 // Play lesson video
                 Intent intent = new Intent(getContext(), VideoPlayerActivity.class);
-                intent.putExtra("lesson", lesson);
+                LessonStore.putExtra(intent, lesson);
                 startActivity(intent);
             }
 
@@ -106,7 +110,7 @@ public class BeginnerFragment extends Fragment implements RefreshableFragment {
             public void onLessonClick(LessonModel lesson) {
                 // Open lesson detail screen
                 Intent intent = new Intent(getContext(), LessonDetailsActivity.class);
-                intent.putExtra("lesson", lesson);
+                LessonStore.putExtra(intent, lesson);
                 startActivity(intent);
             }
         });
@@ -116,15 +120,14 @@ public class BeginnerFragment extends Fragment implements RefreshableFragment {
 
         // Observe LiveData from ViewModel for "Beginners" lessons
         // התחברות ל-Observer (פעם אחת בלבד)
-        lessonViewModel.getLessonsByLevel("Beginners", true)
+        lessonViewModel.getLessonsByLevel("Beginners")
                 .observe(getViewLifecycleOwner(), lessons -> {
                     Log.d("UI", "🔄 lesson list updated: size = " + lessons.size());
-                    for (LessonModel lesson : lessons) {
-                        Log.d("UI", "📄 " + lesson.getTitle());
-                    }
                     adapter.updateList(lessons);
-                    Log.d("UI", "🟨 Adapter item count = " + adapter.getItemCount());
                 });
+
+        // Load the next page when the list nears its end
+        adapter.setOnNearEndListener(() -> lessonViewModel.loadNextPage("Beginners"));
     }
     /**
      * Manual refresh trigger for lessons - can be used externally via RefreshableFragment.
@@ -136,18 +139,6 @@ public class BeginnerFragment extends Fragment implements RefreshableFragment {
         }
     }
 
-    /**
-     * Called automatically when the fragment becomes visible again.
-     * Refreshes the list to ensure it's always current.
-     */
-    @Override
-    public void onResume() {
-        super.onResume();
-        if (lessonViewModel != null) {
-            Log.d("BeginnerFragment", "🔄 רענון ב-onResume");
-            lessonViewModel.refresh("Beginners");
-        }
-    }
     /**
      * Exposes ViewModel to external classes that might need access to it.
      *
@@ -21,13 +21,13 @@
 package com.example.sambaapp.lessons.viewmodel;
 
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -37,7 +37,10 @@ import com.example.sambaapp.lessons.model.LessonModel;
 import com.example.sambaapp.R;
 import com.example.sambaapp.lessons.view.AddLessonActivity;
 import com.example.sambaapp.lessons.view.LessonViewModel;
+import com.example.sambaapp.user.UserLessonState;
 import com.example.sambaapp.user.UserManager;
+import com.example.sambaapp.user.UserProfile;
+import com.example.sambaapp.user.UserProfileStore;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
 import java.util.ArrayList;
@@ -53,6 +56,8 @@ public class LessonViewActivity extends AppCompatActivity {
     private String selectedTab = "Beginners";  // Default level
 
     private LessonViewModel lessonViewModel;
+    /** LiveData of the tab currently observed; its observer is removed when switching tabs */
+    private LiveData<List<LessonModel>> observedLessons;
 
     /**
      * Initializes the activity, sets up UI components, loads user data and connects ViewModel observers.
@@ -69,6 +74,8 @@ public class LessonViewActivity extends AppCompatActivity {
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         adapter = new LessonAdapter(new ArrayList<>(), UserManager.isInstructor());
         recyclerView.setAdapter(adapter);
+        // Favorite and watched marks come from the in-memory user state
+        UserLessonState.getInstance(this).getSnapshots().observe(this, adapter::setUserState);
 
         // Display greeting with user name
         tvHelloUser = findViewById(R.id.tv_hello_user);
@@ -78,10 +85,6 @@ public class LessonViewActivity extends AppCompatActivity {
             tvHelloUser.setText("Hello " + userName + "!");
         }
 
-        // Load profile image from SharedPreferences or internal storage
-        UserManager.loadProfileImage(this, imgProfile);
-
-
         // FAB to add lessons (only visible for instructors)
         fabAddLesson = findViewById(R.id.fab_add_lesson);
         fabAddLesson.setOnClickListener(v -> {
@@ -90,12 +93,12 @@ public class LessonViewActivity extends AppCompatActivity {
             startActivity(intent);
         });
 
-        if (!UserManager.isInstructor()) {
-            fabAddLesson.hide();
-        }
+        // Profile image and FAB visibility follow the user's profile
+        UserProfileStore.getInstance(this).getProfile().observe(this, this::showProfile);
 
         // Set up ViewModel and observe lesson data
         lessonViewModel = new ViewModelProvider(this).get(LessonViewModel.class);
+        adapter.setOnNearEndListener(() -> lessonViewModel.loadNextPage(selectedTab));
         observeLessons();
 
         // Setup tab click listeners
@@ -120,7 +123,12 @@ public class LessonViewActivity extends AppCompatActivity {
      * Adds demo lessons in addition to real lessons retrieved from Firestore.
      */
     private void observeLessons() {
-        lessonViewModel.getLessonsByLevel(selectedTab, true).observe(this, lessons -> {
+        // Only the visible tab keeps a live listener
+        if (observedLessons != null) {
+            observedLessons.removeObservers(this);
+        }
+        observedLessons = lessonViewModel.getLessonsByLevel(selectedTab);
+        observedLessons.observe(this, lessons -> {
             List<LessonModel> combinedList = new ArrayList<>();
 
             // Add demo lessons based on level
@@ -142,36 +150,19 @@ public class LessonViewActivity extends AppCompatActivity {
 
 
     /**
-     * Refreshes data and reloads user preferences when the activity resumes.
-     * Ensures profile image and instructor permissions are up-to-date.
+     * Shows a new profile snapshot: the profile image and the
+     * FAB, which is visible to instructors only.
+     * Lesson data needs no refresh here: the observed level is kept live by the ViewModel.
      */
-    @Override
-    protected void onResume() {
-        super.onResume();
-        lessonViewModel.refresh(selectedTab);
-
-        // Reload user data from SharedPreferences
-        SharedPreferences prefs = getSharedPreferences("user_prefs", MODE_PRIVATE);
-        String name = prefs.getString("user_name", null);
-        String age = prefs.getString("user_age", null);
-        String email = prefs.getString("user_email", null);
-        String role = prefs.getString("user_role", null);
-        if (name != null && age != null && email != null && role != null) {
-            UserManager.setUserInfo(name, age, email, role);
-        }
-
-        // Reload profile image
-        UserManager.loadProfileImage(this, imgProfile);
+    private void showProfile(UserProfile profile) {
+        // Keyed by the image version: an unchanged image comes from Glide's memory cache
+        UserManager.loadProfileImage(imgProfile, profile);
 
         // Toggle FAB visibility based on instructor status
-        if (UserManager.isInstructor()) {
+        if (profile.isInstructor()) {
             fabAddLesson.show();
         } else {
             fabAddLesson.hide();
         }
     }
-
-
-
-
 }
@@ -23,18 +23,19 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.util.Log;
 import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.EditText;
 import android.widget.RadioGroup;
 import android.widget.Toast;
 
+import com.example.sambaapp.core.AppLog;
 import com.example.sambaapp.R;
 import com.example.sambaapp.lessons.view.LessonListActivity;
 import com.example.sambaapp.user.HealthActivity;
 import com.example.sambaapp.user.SettingsActivity;
 import com.example.sambaapp.user.UserManager;
+import com.example.sambaapp.user.UserProfileStore;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
@@ -59,9 +60,6 @@ public class MainActivity extends AppCompatActivity {
         // Loads the screen layout from XML
         setContentView(R.layout.activity_main);
 
-        // Initialize UserManager (SharedPreferences) for local user data storage
-        UserManager.init();
-
         // Bind UI components from XML to Java variables
         fullName = findViewById(R.id.edit_full_name);
         age = findViewById(R.id.edit_age);
@@ -201,8 +199,9 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads the existing user's profile from Firestore (users/{uid}),
-     * updates local UserManager, and navigates according to onboarding status:
+     * Loads the existing user's profile from Firestore (users/{uid}) through
+     * {@link UserProfileStore}, whose listener also keeps it up to date for the other screens,
+     * and navigates according to onboarding status:
      *
      * <ul>
      *   <li>If healthDone && settingsDone → Lesson list</li>
@@ -214,32 +213,23 @@ public class MainActivity extends AppCompatActivity {
         FirebaseUser user = auth.getCurrentUser();
         if (user == null) return; // No authenticated user
 
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        String uid = user.getUid();
-
-        // Fetch users/{uid} from Firestore
-        db.collection("users").document(uid).get()
-                .addOnSuccessListener(document -> {
-                    if (document.exists()) {
-
-                        String name = document.getString("name");
-                        String role = document.getString("role");
-                        String age = document.getString("age");
+        // The store of the signed-in user; its first users/{uid} snapshot completes the task
+        UserProfileStore.getInstance(this).getDocumentProfile()
+                .addOnSuccessListener(this, profile -> {
+                    if (profile != null) {
 
-                        Log.d("LOGIN_FLOW",
-                                "name=" + name + ", role=" + role + ", age=" + age);
+                        String name = profile.getName();
+                        String role = profile.getRole();
 
-                        // Save locally (SharedPreferences)
-                        UserManager.setUserInfo(name, age, user.getEmail(), role);
+                        AppLog.d(AppLog.Tag.LOGIN_FLOW,
+                                () -> "name=" + name + ", role=" + role + ", age=" + profile.getAge());
 
-                        // Onboarding flags (Boolean.TRUE.equals handles null safely)
-                        boolean healthDone =
-                                Boolean.TRUE.equals(document.getBoolean("healthDone"));
-                        boolean settingsDone =
-                                Boolean.TRUE.equals(document.getBoolean("settingsDone"));
+                        // Onboarding flags
+                        boolean healthDone = profile.isHealthDone();
+                        boolean settingsDone = profile.isSettingsDone();
 
-                        Log.d("LOGIN_FLOW",
-                                "healthDone=" + healthDone + ", settingsDone=" + settingsDone);
+                        AppLog.d(AppLog.Tag.LOGIN_FLOW,
+                                () -> "healthDone=" + healthDone + ", settingsDone=" + settingsDone);
 
                         // Navigation logic
                         if (healthDone && settingsDone) {
@@ -257,7 +247,7 @@ public class MainActivity extends AppCompatActivity {
                                 Toast.LENGTH_SHORT).show();
                     }
                 })
-                .addOnFailureListener(e ->
+                .addOnFailureListener(this, e ->
                         Toast.makeText(this,
                                 "Failed to load user data: " + e.getMessage(),
                                 Toast.LENGTH_SHORT).show()
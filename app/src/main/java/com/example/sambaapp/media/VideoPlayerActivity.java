@@ -2,20 +2,17 @@
  * VideoPlayerActivity is responsible for playing a lesson video
  * in full screen using {@link VideoView}.
  *
- * <p>The video URI is retrieved from a {@link LessonModel} object
- * passed via an Intent with the key "lesson".</p>
+ * <p>The lesson is passed by id and resolved through {@link LessonStore}. If the lesson is a
+ * list summary without a video path, the full lesson is loaded by id through
+ * {@link LessonRepository}.</p>
  *
  * <p>The activity automatically starts playback and attaches a
  * {@link MediaController} for playback controls (play, pause, seek, etc.).</p>
  *
- * <p><strong>Note:</strong> In order for {@code getSerializableExtra("lesson")}
- * to work, {@link LessonModel} must implement {@link java.io.Serializable}.
- * Alternatively (and recommended for Android), {@code Parcelable} can be used.</p>
- *
  * <p>Usage example:</p>
  * <pre>
  *     Intent intent = new Intent(context, VideoPlayerActivity.class);
- *     intent.putExtra("lesson", lessonModel);
+ *     LessonStore.putExtra(intent, lessonModel);
  *     startActivity(intent);
  * </pre>
  *
@@ -32,6 +29,8 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.sambaapp.R;
+import com.example.sambaapp.lessons.data.LessonRepository;
+import com.example.sambaapp.lessons.data.LessonStore;
 import com.example.sambaapp.lessons.model.LessonModel;
 
 public class VideoPlayerActivity extends AppCompatActivity {
@@ -63,29 +62,42 @@ public class VideoPlayerActivity extends AppCompatActivity {
         // Bind the VideoView from the XML layout
         videoView = findViewById(R.id.video_view);
 
-        // Retrieve the LessonModel object passed via Intent
-        // NOTE: LessonModel must implement Serializable (or Parcelable if refactored)
-        LessonModel lesson =
-                (LessonModel) getIntent().getSerializableExtra("lesson");
+        // Resolve the lesson passed by id (falls back to the compact ref after process death)
+        LessonModel lesson = LessonStore.fromIntent(getIntent());
 
         // Verify that the lesson and its video path exist
         if (lesson != null && lesson.getVideoPath() != null) {
+            play(lesson.getVideoPath());
+        } else if (lesson != null && lesson.getId() != null) {
+            // List rows carry only a summary; fetch the full lesson for its video path
+            LessonRepository.getInstance(this)
+                    .getLessonDetails(lesson.getId())
+                    .addOnSuccessListener(this, full -> {
+                        if (full.getVideoPath() != null) play(full.getVideoPath());
+                    });
+        }
+    }
 
-            // Convert the video path string into a Uri
-            // (may be content:// or file:// depending on storage method)
-            Uri videoUri = Uri.parse(lesson.getVideoPath());
+    /**
+     * Starts playback of the given video path with media controls attached.
+     *
+     * @param videoPath content:// or file:// path of the lesson video
+     */
+    private void play(String videoPath) {
+        // Convert the video path string into a Uri
+        // (may be content:// or file:// depending on storage method)
+        Uri videoUri = Uri.parse(videoPath);
 
-            // Set the video source
-            videoView.setVideoURI(videoUri);
+        // Set the video source
+        videoView.setVideoURI(videoUri);
 
-            // Attach media playback controls (play, pause, seek, etc.)
-            videoView.setMediaController(new MediaController(this));
+        // Attach media playback controls (play, pause, seek, etc.)
+        videoView.setMediaController(new MediaController(this));
 
-            // Request focus so media buttons work properly
-            videoView.requestFocus();
+        // Request focus so media buttons work properly
+        videoView.requestFocus();
 
-            // Start video playback automatically
-            videoView.start();
-        }
+        // Start video playback automatically
+        videoView.start();
     }
 }
@@ -0,0 +1,108 @@
+/**
+ * {@code AvatarLoader} is the one place the user's profile image is loaded into a view.
+ *
+ * <p>{@link ProfileImageIngestor} stores the profile image once at full avatar resolution and once
+ * per {@link Size} the app renders, in that size's pixels. A view loads the variant of its
+ * size, so Glide decodes a few kilobytes instead of the 512 px image.</p>
+ *
+ * <p>Every load is keyed by the image version in the {@link UserProfile} (the file's modification
+ * time when it was stored). Glide's memory and disk caches stay on: an unchanged image is
+ * served from the cache, while a new photo saved under the same file name gets a new key and is
+ * loaded again. No file is checked on the main thread; a missing file simply ends in the
+ * placeholder.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * AvatarLoader.load(ivProfile, profile, AvatarLoader.Size.TOOLBAR);
+ * }</pre>
+ */
+package com.example.sambaapp.user;
+
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.signature.ObjectKey;
+import com.example.sambaapp.R;
+
+import java.io.File;
+
+public final class AvatarLoader {
+
+    /** The sizes the profile image is rendered at */
+    public enum Size {
+        /** The avatar in the screen headers (40–48dp) and the settings screen's upload button */
+        TOOLBAR(48),
+        /** The large avatar on top of the edit lesson screen */
+        HEADER(64);
+
+        final int dp;
+
+        Size(int dp) {
+            this.dp = dp;
+        }
+    }
+
+    private AvatarLoader() {
+    }
+
+    /**
+     * Loads the profile image of {@code profile} into {@code view}, circle-cropped.
+     *
+     * @param view    The target view
+     * @param profile The profile whose image is shown
+     * @param size    The size the view renders the image at
+     */
+    public static void load(ImageView view, UserProfile profile, Size size) {
+        String imagePath = profile.getImagePath();
+        String remote = profile.getImageUri();
+        if (imagePath != null && !imagePath.isEmpty()) {
+            File master = new File(imagePath);
+            ObjectKey version = new ObjectKey(profile.getImageVersion());
+            int px = toPx(view, size);
+            // Images stored before variants existed have only the full-size file
+            request(view, variantFile(master, px), version)
+                    .error(request(view, master, version)
+                            .error(R.drawable.profile_placeholder))
+                    .into(view);
+        } else if (remote != null && !remote.isEmpty()) {
+            // Path or URL from the user document (Glide handles files, content:// and http(s)://)
+            request(view, remote, new ObjectKey(remote))
+                    .error(R.drawable.profile_placeholder)
+                    .into(view);
+        } else {
+            Glide.with(view).clear(view);
+            view.setImageResource(R.drawable.profile_placeholder);
+        }
+    }
+
+    /**
+     * @param master The full-size profile image file
+     * @param px     The variant's size in pixels
+     * @return The file the variant of that size is stored in
+     */
+    static File variantFile(File master, int px) {
+        String name = master.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return new File(master.getParentFile(), base + "_" + px + ".webp");
+    }
+
+    /** @return The size in pixels on this device */
+    static int toPx(float density, Size size) {
+        return Math.round(size.dp * density);
+    }
+
+    private static int toPx(ImageView view, Size size) {
+        return toPx(view.getResources().getDisplayMetrics().density, size);
+    }
+
+    private static RequestBuilder<Drawable> request(ImageView view, Object model, ObjectKey version) {
+        return Glide.with(view)
+                .load(model)
+                .signature(version)
+                .placeholder(R.drawable.profile_placeholder)
+                .circleCrop();
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * {@code FavoritesEngine} is the single place a user's favorite lessons are read and written.
+ *
+ * <p>The local source of truth is the user's favorites set in {@link LocalStorageManager}, kept in
+ * memory, so {@link #isFavorite} and {@link #getFavorites} answer immediately on any thread.
+ * {@link #setFavorite} changes that set right away and queues the change for the user's
+ * {@code users/{uid}/favorites} collection in the {@link WriteOutbox}.</p>
+ *
+ * <p>The outbox sends queued writes together in one batch per flush window and retries them
+ * until they land. Favorites are queued as toggles, so tapping a heart on and off again before
+ * the flush costs no write at all, and any number of taps cost at most one write per lesson.</p>
+ *
+ * <p>While {@link #startRemoteSync() remote sync} is on, the collection is listened to as well, so
+ * favorites changed on another device reach the local set. The favorites last seen on the server
+ * are kept on the device as the synced base. The first server snapshot after each start is
+ * reconciled against that base, so changes made while sync was off are neither lost nor undone:</p>
+ * <ul>
+ *     <li>A favorite on the server but not here is added here, unless it is in the base, which
+ *         means it was removed here; the removal is uploaded then.</li>
+ *     <li>A favorite here but not on the server is removed here if it is in the base, which means
+ *         it was removed elsewhere; otherwise it was added here and is uploaded.</li>
+ * </ul>
+ * <p>Without a base yet (the user's first sync on this device) the two sides are united once.
+ * Later snapshots apply their added and removed documents. Lessons with a change still in the
+ * outbox are skipped throughout, since that change is newer than what the server sent.</p>
+ *
+ * <p>The favorites kept before under {@code favorites_{uid}} in {@link AppPrefs#USER} are imported
+ * once per user. The even older {@code favorite_lessons} set, kept without a user, goes to the
+ * first user who signs in after the upgrade.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * FavoritesEngine favorites = FavoritesEngine.getInstance(context, UserManager.getUid());
+ * favorites.setFavorite(lessonId, true);
+ * boolean isFav = favorites.isFavorite(lessonId);
+ * }</pre>
+ */
+package com.example.sambaapp.user;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.sambaapp.core.AppPrefs;
+import com.example.sambaapp.core.LocalStorageManager;
+import com.example.sambaapp.core.WriteOutbox;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class FavoritesEngine {
+
+    /** Notified on a background thread when remote changes reached the local favorites */
+    public interface Listener {
+        void onFavoritesChanged();
+    }
+
+    private static final String TAG = "FAVORITES";
+
+    private static FavoritesEngine instance;
+
+    private final String uid;
+    private final LocalStorageManager storage;
+    private final WriteOutbox outbox;
+    /** Applies remote snapshots */
+    private final ExecutorService sync = Executors.newSingleThreadExecutor();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    /** Listener on the remote favorites while remote sync is on (main thread) */
+    private ListenerRegistration remoteFavorites;
+    /** Whether a server snapshot was reconciled since remote sync started; {@link #sync} only */
+    private boolean remoteMerged;
+
+    private FavoritesEngine(Context context, String uid) {
+        this.uid = uid;
+        this.storage = new LocalStorageManager(context);
+        this.outbox = WriteOutbox.getInstance(context);
+        importLegacyFavorites(context);
+    }
+
+    /**
+     * Returns the engine of a user, replacing the previous user's engine.
+     *
+     * @param context Any context; only the application context is used
+     * @param uid     The user's id
+     * @return The user's favorites engine
+     */
+    public static synchronized FavoritesEngine getInstance(Context context, String uid) {
+        if (instance == null || !instance.uid.equals(uid)) {
+            if (instance != null) {
+                instance.close();
+            }
+            instance = new FavoritesEngine(context.getApplicationContext(), uid);
+        }
+        return instance;
+    }
+
+    /**
+     * @param lessonId The lesson's id
+     * @return {@code true} if the lesson is one of the user's favorites
+     */
+    public boolean isFavorite(String lessonId) {
+        return storage.isFavorite(uid, lessonId);
+    }
+
+    /** @return A live, unmodifiable view of the user's favorite lesson ids */
+    public Set<String> getFavorites() {
+        return storage.getFavorites(uid);
+    }
+
+    /**
+     * Marks or unmarks a lesson as favorite. The local set changes immediately; the remote
+     * write is queued in the outbox.
+     *
+     * @param lessonId The lesson's id
+     * @param favorite Whether the lesson is a favorite
+     */
+    public void setFavorite(String lessonId, boolean favorite) {
+        if (lessonId == null || isFavorite(lessonId) == favorite) return;
+        storage.setFavorite(uid, lessonId, favorite);
+        queueRemote(lessonId, favorite);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Starts listening to the remote favorites; call on the main thread. */
+    public void startRemoteSync() {
+        if (remoteFavorites != null || sync.isShutdown() || "unknown_uid".equals(uid)) return;
+        remoteFavorites = FirebaseFirestore.getInstance()
+                .collection("users")
+                .document(uid)
+                .collection("favorites")
+                // Also reports when a cached snapshot is confirmed by the server
+                .addSnapshotListener(sync, MetadataChanges.INCLUDE, (remote, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "❌ Remote favorites listener failed", e);
+                        return;
+                    }
+                    if (remote != null) {
+                        onRemoteFavorites(remote);
+                    }
+                });
+    }
+
+    /** Stops listening to the remote favorites; queued changes are still sent. */
+    public void stopRemoteSync() {
+        if (remoteFavorites != null) {
+            remoteFavorites.remove();
+            remoteFavorites = null;
+            // Changes made meanwhile are reconciled against the synced base on the next start
+            if (!sync.isShutdown()) {
+                sync.execute(() -> remoteMerged = false);
+            }
+        }
+    }
+
+    private void queueRemote(String lessonId, boolean favorite) {
+        if ("unknown_uid".equals(uid)) return;
+        outbox.toggle(remotePath(lessonId), favorite);
+    }
+
+    private String remotePath(String lessonId) {
+        return "users/" + uid + "/favorites/" + lessonId;
+    }
+
+    /** Applies a remote favorites snapshot to the local set; {@link #sync} only */
+    private void onRemoteFavorites(QuerySnapshot remote) {
+        int[] counts = new int[2];
+        if (!remoteMerged) {
+            // A cached snapshot may be stale or empty; reconcile only against the server's
+            if (remote.getMetadata().isFromCache()) return;
+            reconcile(remote, counts);
+            remoteMerged = true;
+        } else {
+            for (DocumentChange change : remote.getDocumentChanges()) {
+                String lessonId = change.getDocument().getId();
+                boolean favorite = change.getType() != DocumentChange.Type.REMOVED;
+                storage.setSyncedFavorite(uid, lessonId, favorite);
+                // A change still in the outbox is newer than what the server sent
+                if (outbox.hasPending(remotePath(lessonId))) continue;
+                apply(lessonId, favorite, counts);
+            }
+        }
+        if (counts[0] + counts[1] == 0) return;
+        Log.d(TAG, "☁️ Remote favorites: +" + counts[0] + " -" + counts[1]);
+        for (Listener listener : listeners) {
+            listener.onFavoritesChanged();
+        }
+    }
+
+    /** Reconciles the local favorites with a full server snapshot and the synced base */
+    private void reconcile(QuerySnapshot remote, int[] counts) {
+        boolean hasBase = storage.hasSyncedFavorites(uid);
+        Set<String> base = hasBase
+                ? new HashSet<>(storage.getSyncedFavorites(uid))
+                : Collections.<String>emptySet();
+        Set<String> remoteIds = new HashSet<>();
+        for (DocumentSnapshot doc : remote.getDocuments()) {
+            remoteIds.add(doc.getId());
+        }
+        storage.setSyncedFavorites(uid, remoteIds);
+
+        for (String lessonId : remoteIds) {
+            if (isFavorite(lessonId) || outbox.hasPending(remotePath(lessonId))) continue;
+            if (base.contains(lessonId)) {
+                queueRemote(lessonId, false); // removed here while sync was off
+            } else {
+                apply(lessonId, true, counts); // added elsewhere
+            }
+        }
+        for (String lessonId : new ArrayList<>(getFavorites())) {
+            if (remoteIds.contains(lessonId) || outbox.hasPending(remotePath(lessonId))) continue;
+            if (base.contains(lessonId)) {
+                apply(lessonId, false, counts); // removed elsewhere
+            } else {
+                queueRemote(lessonId, true); // added here
+            }
+        }
+        Log.d(TAG, hasBase ? "🔄 Reconciled favorites with the server" : "🔗 Merged favorites with the server");
+    }
+
+    /** Changes the local set to a remote state; counts additions in [0] and removals in [1] */
+    private void apply(String lessonId, boolean favorite, int[] counts) {
+        if (isFavorite(lessonId) == favorite) return;
+        storage.setFavorite(uid, lessonId, favorite);
+        counts[favorite ? 0 : 1]++;
+    }
+
+    /**
+     * Imports the favorites {@code UserManager} kept in the user preferences, once per user, and
+     * the favorites kept without a user before that
+     */
+    private void importLegacyFavorites(Context context) {
+        if ("unknown_uid".equals(uid)) return;
+        int unowned = storage.claimUnownedFavorites(uid);
+        if (unowned > 0) {
+            Log.d(TAG, "📦 Imported " + unowned + " favorites saved without a user");
+        }
+        AppPrefs prefs = AppPrefs.get(context, AppPrefs.USER);
+        String key = "favorites_" + uid;
+        Set<String> legacy = prefs.getStringSet(key);
+        if (storage.importFavoritesOnce(uid, legacy) && prefs.contains(key)) {
+            prefs.edit().remove(key).apply();
+            Log.d(TAG, "📦 Imported " + legacy.size() + " favorites from preferences");
+        }
+    }
+
+    /** Stops remote sync; changes still queued stay in the outbox */
+    private void close() {
+        stopRemoteSync();
+        listeners.clear();
+        sync.shutdown();
+    }
+}
@@ -22,6 +22,7 @@ package com.example.sambaapp.user;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 import android.widget.CheckBox;
@@ -35,6 +36,9 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.util.HashMap;
+import java.util.Map;
+
 
 public class HealthActivity extends AppCompatActivity {
 
@@ -95,8 +99,14 @@ public class HealthActivity extends AppCompatActivity {
                 FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
                 if (currentUser != null) {
                     String uid = currentUser.getUid();
-                    FirebaseFirestore db = FirebaseFirestore.getInstance();
-                    db.collection("users").document(uid).update("healthDone", true);
+                    // Written directly, not through the outbox: Firestore applies it to local reads
+                    // at once (the start screen routes on it) and sends it once the user is online
+                    Map<String, Object> healthDone = new HashMap<>();
+                    healthDone.put("healthDone", true);
+                    FirebaseFirestore.getInstance().collection("users").document(uid)
+                            .update(healthDone)
+                            .addOnFailureListener(e ->
+                                    Log.e("HEALTH", "❌ Failed to save the health declaration", e));
                 }
 
                 // 👉 Move to next screen
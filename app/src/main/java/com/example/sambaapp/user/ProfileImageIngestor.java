@@ -0,0 +1,322 @@
+/**
+ * {@code ProfileImageIngestor} turns a picked or captured photo into the user's profile image file.
+ *
+ * <p>All work runs on one background thread, never on the main thread:</p>
+ * <ol>
+ *   <li>The image bounds are decoded first, without allocating pixels.</li>
+ *   <li>The image is decoded with the largest power-of-two {@code inSampleSize} that keeps both
+ *       sides at least {@link #MAX_SIZE_PX}, then scaled down to fit it exactly.
+ *       A 12 MP photo is decoded as about 1 MP instead of 48 MB of pixels.</li>
+ *   <li>The EXIF orientation is applied, so portrait photos are not shown sideways.</li>
+ *   <li>Every step that creates a new bitmap recycles the one before it, so at most two
+ *       bitmaps are held at a time.</li>
+ *   <li>The result is encoded as lossy WebP, and so is one smaller variant per
+ *       {@link AvatarLoader.Size} in this device's pixels. Each file is written to a temporary
+ *       file, which then replaces it, so a reader never sees a half-written avatar.</li>
+ * </ol>
+ *
+ * <p>The variants are written before the full-size file. The stored image is then set as the
+ * user's profile image in {@link UserProfileStore}, with the full-size file's modification time
+ * as its version, which {@link AvatarLoader} uses as the cache key. Screens learn about the new
+ * image by observing the profile, and about ingestion through {@link #getPending()} and
+ * {@link #getFailures()}; nothing holds on to the screen that started it, so an ingestion
+ * survives a rotation.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * ProfileImageIngestor ingestor = ProfileImageIngestor.getInstance(this);
+ * ingestor.getPending().observe(this, pending -> btnContinue.setEnabled(pending == 0));
+ * ingestor.ingest(uri, target);
+ * }</pre>
+ */
+package com.example.sambaapp.user;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class ProfileImageIngestor {
+
+    private static final String TAG = "PROFILE_IMAGE";
+    /** Longest side of a stored profile image; avatars are shown at 64dp at most */
+    static final int MAX_SIZE_PX = 512;
+    private static final int WEBP_QUALITY = 85;
+
+    private static volatile ProfileImageIngestor instance;
+
+    private final Context context;
+    private final ContentResolver resolver;
+    private final float density;
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicInteger failureCount = new AtomicInteger();
+    private final MutableLiveData<Integer> pending = new MutableLiveData<>(0);
+    private final MutableLiveData<Integer> failures = new MutableLiveData<>(0);
+
+    private ProfileImageIngestor(Context context) {
+        this.context = context;
+        this.resolver = context.getContentResolver();
+        this.density = context.getResources().getDisplayMetrics().density;
+    }
+
+    public static ProfileImageIngestor getInstance(Context context) {
+        if (instance == null) {
+            synchronized (ProfileImageIngestor.class) {
+                if (instance == null) {
+                    instance = new ProfileImageIngestor(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** @return The number of ingestions not finished yet */
+    public LiveData<Integer> getPending() {
+        return pending;
+    }
+
+    /** @return The number of ingestions that failed since the process started */
+    public LiveData<Integer> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Ingests an image picked from the gallery. Call on the main thread.
+     *
+     * @param source The image's content Uri
+     * @param target The file to store the profile image in
+     */
+    public void ingest(Uri source, File target) {
+        pending.setValue(pendingCount.incrementAndGet());
+        io.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            try {
+                Bitmap upright = rotate(decodeSampled(source), readOrientation(source));
+                Bitmap fitted = fitInside(upright);
+                if (fitted != upright) upright.recycle();
+                long version;
+                try {
+                    version = store(fitted, target);
+                } finally {
+                    fitted.recycle();
+                }
+                Log.d(TAG, "🖼️ Stored " + target.getName() + " (" + target.length() / 1024
+                        + " KB) in " + (SystemClock.elapsedRealtime() - start) + " ms");
+                onStored(target, version);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "❌ Failed to store profile image", e);
+                onFailed();
+            }
+        });
+    }
+
+    /**
+     * Ingests a photo returned by the camera as a bitmap (a thumbnail, already upright).
+     * Call on the main thread.
+     *
+     * @param photo  The captured photo
+     * @param target The file to store the profile image in
+     */
+    public void ingest(Bitmap photo, File target) {
+        pending.setValue(pendingCount.incrementAndGet());
+        io.execute(() -> {
+            try {
+                // The photo itself belongs to the caller; only a scaled copy is recycled here
+                Bitmap fitted = fitInside(photo);
+                long version;
+                try {
+                    version = store(fitted, target);
+                } finally {
+                    if (fitted != photo) fitted.recycle();
+                }
+                onStored(target, version);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "❌ Failed to store profile photo", e);
+                onFailed();
+            }
+        });
+    }
+
+    /** Sets the stored image as the profile image, then reports the ingestion finished */
+    private void onStored(File target, long version) {
+        UserProfileStore.getInstance(context).setImagePath(target.getAbsolutePath(), version);
+        pending.postValue(pendingCount.decrementAndGet());
+    }
+
+    private void onFailed() {
+        failures.postValue(failureCount.incrementAndGet());
+        pending.postValue(pendingCount.decrementAndGet());
+    }
+
+    // --------------------------
+    // Pipeline steps (io thread)
+    // --------------------------
+
+    private Bitmap decodeSampled(Uri source) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = open(source)) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("not an image: " + source);
+        }
+
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, MAX_SIZE_PX);
+        options.inJustDecodeBounds = false;
+        Bitmap bitmap;
+        try (InputStream in = open(source)) {
+            bitmap = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (bitmap == null) {
+            throw new IOException("cannot decode " + source);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @return The largest power of two that keeps the shorter side of the decoded image at
+     * least {@code maxSize}, so the final scale-down never enlarges it
+     */
+    static int sampleSize(int width, int height, int maxSize) {
+        int sampleSize = 1;
+        while (Math.min(width, height) / (sampleSize * 2) >= maxSize) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private int readOrientation(Uri source) {
+        try (InputStream in = open(source)) {
+            return new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            // No EXIF data (e.g. a PNG): the image is shown as stored
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    /** Applies the EXIF orientation; the input is recycled when a rotated copy is returned */
+    private static Bitmap rotate(Bitmap bitmap, int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(270);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(270);
+                matrix.postScale(-1, 1);
+                break;
+            default:
+                return bitmap;
+        }
+        Bitmap rotated = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (rotated != bitmap) bitmap.recycle();
+        return rotated;
+    }
+
+    /**
+     * Writes the avatar variants, then the full-size image.
+     *
+     * @return The full-size file's modification time
+     */
+    private long store(Bitmap bitmap, File target) throws IOException {
+        Set<Integer> written = new HashSet<>();
+        for (AvatarLoader.Size size : AvatarLoader.Size.values()) {
+            int px = AvatarLoader.toPx(density, size);
+            // Sizes rendered at the same pixels share one file
+            if (!written.add(px)) continue;
+            Bitmap variant = fitInside(bitmap, px);
+            try {
+                writeWebp(variant, AvatarLoader.variantFile(target, px));
+            } finally {
+                if (variant != bitmap) variant.recycle();
+            }
+        }
+        writeWebp(bitmap, target);
+        return target.lastModified();
+    }
+
+    /** Scales the bitmap down so its longer side is at most {@link #MAX_SIZE_PX} */
+    private static Bitmap fitInside(Bitmap bitmap) {
+        return fitInside(bitmap, MAX_SIZE_PX);
+    }
+
+    /** Scales the bitmap down so its longer side is at most {@code maxSize} */
+    private static Bitmap fitInside(Bitmap bitmap, int maxSize) {
+        int longest = Math.max(bitmap.getWidth(), bitmap.getHeight());
+        if (longest <= maxSize) return bitmap;
+        float scale = (float) maxSize / longest;
+        return Bitmap.createScaledBitmap(bitmap,
+                Math.max(1, Math.round(bitmap.getWidth() * scale)),
+                Math.max(1, Math.round(bitmap.getHeight() * scale)),
+                true);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void writeWebp(Bitmap bitmap, File target) throws IOException {
+        Bitmap.CompressFormat format = Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+        File tmp = new File(target.getPath() + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(tmp)) {
+                if (!bitmap.compress(format, WEBP_QUALITY, out)) {
+                    throw new IOException("WebP encoding failed");
+                }
+                out.getFD().sync();
+            }
+            if (!tmp.renameTo(target)) {
+                throw new IOException("rename failed");
+            }
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw e;
+        }
+    }
+
+    private InputStream open(Uri source) throws IOException {
+        InputStream in = resolver.openInputStream(source);
+        if (in == null) {
+            throw new IOException("cannot open " + source);
+        }
+        return in;
+    }
+}
@@ -2,7 +2,7 @@
  * SettingsActivity handles user profile configuration including
  * name, phone, age, gender, level (e.g., Instructor or Participant), and profile image.
  * It supports loading and saving user data to Firestore, selecting images from the camera or gallery,
- * and storing image paths locally using SharedPreferences.
+ * and storing image paths locally through {@link UserProfileStore}.
  *
  * This activity is shown after the health declaration and is required before accessing lessons.
  *
@@ -13,9 +13,9 @@
  * שם, טלפון, גיל, מגדר, רמה (Instructor/Participant/...), ותמונת פרופיל.
  *
  * הפעילות:
- * - טוענת נתוני משתמש קיימים מ-Firestore (users/{uid})
+ * - ממלאת את השדות מהפרופיל של UserProfileStore (מאזין יחיד על users/{uid})
  * - מאפשרת בחירת תמונה (מצלמה/גלריה) ושמירתה באחסון פנימי
- * - שומרת נתיבים לוקאליים ב-SharedPreferences
+ * - שומרת נתיבים לוקאליים דרך UserProfileStore
  * - מעדכנת את מסמך המשתמש ומנווטת לשיעורים
  *
  * NOTE: הזרימה הזו מוצגת אחרי הצהרת בריאות (health) ולפני גישה לשיעורים.
@@ -23,8 +23,6 @@
 package com.example.sambaapp.user;
 
 import android.content.Intent;
-import android.graphics.BitmapFactory;
-import android.net.Uri;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.util.Log;
@@ -42,7 +40,7 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.example.sambaapp.core.AppLog;
 import com.example.sambaapp.R;
 import com.example.sambaapp.lessons.view.LessonListActivity;
 import com.google.firebase.auth.FirebaseAuth;
@@ -50,9 +48,6 @@ import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -61,8 +56,6 @@ public class SettingsActivity extends AppCompatActivity {
     private static final int REQUEST_CAMERA = 1;
     /** קוד בקשה לבחירת תמונה מהגלריה (startActivityForResult ישן) */
     private static final int REQUEST_GALLERY = 2;
-    /** ה-Uri של תמונת הפרופיל שנבחרה/צולמה (משמש לזיכרון בלבד) */
-    private Uri imageUri;
     /** Spinner for selecting user level (e.g., Instructor, Beginner, etc.) */
     /** בוררים (Spinner) לרמה ולמגדר */
     Spinner spLevel, spGender;
@@ -70,19 +63,25 @@ public class SettingsActivity extends AppCompatActivity {
     EditText editPhone, editAge, editName;
     /** כפתור המשך (Enabled רק כשהשדות תקינים) */
     Button btnContinue;
-    /** דגל האם נבחרה תמונה חדשה (משפיע על השמירה ל-Firestore) */
-    private boolean isNewImageSelected = false;
+    /** מפתח לשמירת מספר הכישלונות שכבר הוצגו (נשמר בסיבוב מסך) */
+    private static final String STATE_SEEN_FAILURES = "seen_image_failures";
+    /** דגל האם תמונה עדיין בעיבוד – כל עוד כן, Continue כבוי כדי שהנתיב לא יחסר בעדכון */
+    private boolean imagePending = false;
+    /** מספר כישלונות עיבוד התמונה שכבר הוצגו למשתמש */
+    private int seenImageFailures;
+    /** דגל האם השדות כבר מולאו ממסמך המשתמש (ממלאים פעם אחת, כדי לא לדרוס הקלדה) */
+    private boolean fieldsFilled = false;
 
     /** יוצר שם קובץ לתמונת פרופיל באחסון פנימי לפי UID */
     private String getProfileImageFilename(String uid) {
-        return "profile_" + uid + ".png";
+        return "profile_" + uid + ".webp";
     }
 
     /**
      * onCreate – הכנת המסך:
      * - קישור רכיבי UI
      * - מילוי Spinners
-     * - טעינת נתונים קיימים מ-Firestore
+     * - האזנה לפרופיל המשתמש (ברכה, תמונה ומילוי שדות)
      * - רישום מאזינים לכפתורים ולשדות
      */
     @Override
@@ -90,13 +89,6 @@ public class SettingsActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_settings);
 
-        // ברכת שלום לפי שם שמור ב-UserManager (מגיע מהתחברות/טעינת פרופיל מוקדמת)
-        TextView greetingText = findViewById(R.id.text_greeting);
-        String userName = UserManager.getName();  // נשלף מהמחלקה ששומרת מידע
-        if (userName != null && !userName.isEmpty()) {
-            greetingText.setText("Hello " + userName);
-        }
-
         // קישור רכיבים
         spLevel = findViewById(R.id.spinner_level);
         spGender = findViewById(R.id.spinner_gender);
@@ -121,63 +113,26 @@ public class SettingsActivity extends AppCompatActivity {
         ImageButton btnBack = findViewById(R.id.btn_back);
         btnBack.setOnClickListener(v -> finish());
 
-        // --- טעינת נתוני משתמש קיימים מ-Firestore (users/{uid}) ---
-
-        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
-        if (user != null) {
-            String uid = user.getUid();
-            FirebaseFirestore db = FirebaseFirestore.getInstance();
-
-
-            db.collection("users").document(uid).get()
-                    .addOnSuccessListener(document -> {
-                        String imageUriStr = document.getString("imageUri");// נתיב קובץ לוקאלי ששמרנו בעבר
-                        if (document.exists()) {
-                            String name = document.getString("name");
-                            String age = document.getString("age");
-                            String phone = document.getString("phone");
-                            String gender = document.getString("gender");
-                            String level = document.getString("level");
-
-                            // שמירה ל-UserManager
-                            UserManager.setUserInfo(name, age, user.getEmail(), level);
-                            // טעינת תמונת פרופיל אם נשמר נתיב לוקאלי
-                            if (imageUriStr != null) {
-                                File imgFile = new File(imageUriStr);
-                                if (imgFile.exists()) {
-
-                                    imageUri = Uri.fromFile(imgFile);
-
-                                    Glide.with(this)
-                                            .load(imgFile)
-                                            .placeholder(R.drawable.profile_placeholder)
-                                            .circleCrop()
-                                            .into((ImageButton) findViewById(R.id.btn_upload));
-                                }
-                                // NOTE: אם imageUriStr הוא content:// במקום קובץ,
-                                //       אפשר לטעון גם אותו ישירות עם Glide (Glide תומכת).
-                            }
-
-                            // מילוי שדות UI בהתאם לנתונים
-                            if (name != null) editName.setText(name);
-                            if (age != null) editAge.setText(age);
-                            if (phone != null) editPhone.setText(phone);
-
-                            if (gender != null) {
-                                int genderIndex = ((ArrayAdapter) spGender.getAdapter()).getPosition(gender);
-                                spGender.setSelection(genderIndex);
-                            }
-
-                            if (level != null) {
-                                int levelIndex = ((ArrayAdapter) spLevel.getAdapter()).getPosition(level);
-                                spLevel.setSelection(levelIndex);
-                            }
-                        }
-
-                    })
-                    .addOnFailureListener(e ->
-                            Toast.makeText(this, "Failed to load user data: " + e.getMessage(), Toast.LENGTH_SHORT).show());
-        }
+        // --- נתוני המשתמש מגיעים מהפרופיל (נטען מקומית ומתעדכן ממאזין יחיד על users/{uid}) ---
+        // תמונה שעובדה ברקע מגיעה גם היא דרך הפרופיל, גם אם המסך נוצר מחדש בינתיים
+        UserProfileStore.getInstance(this).getProfile().observe(this, this::showProfile);
+
+        // מצב עיבוד התמונה: Continue כבוי בזמן עיבוד; כישלון חדש מוצג פעם אחת
+        ProfileImageIngestor ingestor = ProfileImageIngestor.getInstance(this);
+        Integer failures = ingestor.getFailures().getValue();
+        seenImageFailures = savedInstanceState != null
+                ? savedInstanceState.getInt(STATE_SEEN_FAILURES)
+                : failures != null ? failures : 0;
+        ingestor.getPending().observe(this, pending -> {
+            imagePending = pending > 0;
+            validateFields();
+        });
+        ingestor.getFailures().observe(this, count -> {
+            if (count > seenImageFailures) {
+                Toast.makeText(this, "Failed to save image", Toast.LENGTH_SHORT).show();
+            }
+            seenImageFailures = count;
+        });
 
         // הפעלת ה-Continue רק כששדות חיוניים מולאו (כאן בודקים בעיקר טלפון וגיל)
         editPhone.addTextChangedListener(new android.text.TextWatcher() {
@@ -198,7 +153,6 @@ public class SettingsActivity extends AppCompatActivity {
         // כפתורי העלאת תמונה: צילום או גלריה
         ImageButton btnUpload = findViewById(R.id.btn_upload);
         TextView textUpload = findViewById(R.id.text_upload);
-        loadProfileImageFromPrefs();  // ניסיון לטעון תמונה מה-Prefs (אם נשמרה קודם)
 
 
         btnUpload.setOnClickListener(v -> openCamera());// צילום תמונה חדשה
@@ -217,11 +171,7 @@ public class SettingsActivity extends AppCompatActivity {
             FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
             if (currentUser != null) {
 
-                // שמירה גם כ־Uri בזיכרון
                 String uid = currentUser.getUid();
-                File imageFile = new File(getFilesDir(), getProfileImageFilename(uid));
-
-                FirebaseFirestore db = FirebaseFirestore.getInstance();
 
                 // אוסף עדכונים לשמירה במסמך המשתמש
                 Map<String, Object> updateData = new HashMap<>();
@@ -232,24 +182,23 @@ public class SettingsActivity extends AppCompatActivity {
                 updateData.put("level", level);
                 updateData.put("settingsDone", true);// מסמן שהגדרות הושלמו
 
-                // אם נבחרה תמונה חדשה ונשמר קובץ – שמירת הנתיב במסמך וב-Prefs
-                String imagePath = imageFile.getAbsolutePath();
-                if (isNewImageSelected && imageFile.exists()) {
+                // אם נשמרה תמונת פרופיל (הפרופיל מתעדכן בסיום העיבוד) – שמירת הנתיב גם במסמך
+                String imagePath = UserProfileStore.getInstance(this).get().getImagePath();
+                if (imagePath != null && !imagePath.isEmpty()) {
                     updateData.put("imageUri", imagePath);
-                    getSharedPreferences("user_prefs", MODE_PRIVATE)
-                            .edit()
-                            .putString("profile_image_path_" + uid, imagePath)
-                            .apply();
-                    UserManager.setImageUri(imagePath);  // עדכון זיכרון
                 }
 
 
 
-                // כתיבת העדכונים ל-Firestore (update לא מוחק שדות שאינם קיימים במפה)
-                db.collection("users").document(uid).update(updateData);
-                // עדכון UserManager לוקאלי לטעינה מהירה
+                // כתיבת העדכונים ישירות ל-Firestore (update לא מוחק שדות שאינם קיימים במפה), לא דרך
+                // ה-outbox: Firestore מחיל אותם מיד על קריאות מקומיות – מסך הכניסה מנתב לפי settingsDone –
+                // ושומר ושולח אותם גם אם אין כרגע רשת
+                FirebaseFirestore.getInstance().collection("users").document(uid)
+                        .update(updateData)
+                        .addOnFailureListener(e -> Log.e("SETTINGS", "❌ Failed to save settings", e));
+                // עדכון הפרופיל המקומי לטעינה מהירה; הרמה אינה התפקיד – התפקיד נשמר כפי שהוא
                 String email = FirebaseAuth.getInstance().getCurrentUser().getEmail();
-                UserManager.setUserInfo(enteredName, age, email, level);
+                UserManager.setUserInfo(enteredName, age, email, UserManager.getRole());
 
                 // ניווט למסך רשימת השיעורים (ניקוי הסטאק למניעת חזרה אחורה)
                 Intent intent = new Intent(SettingsActivity.this, LessonListActivity.class);
@@ -267,55 +216,44 @@ public class SettingsActivity extends AppCompatActivity {
         validateFields();
     }
     /**
-     * Saves the selected/captured image to the app's internal storage.
-     *
-     * @param bitmap   The image to save
-     * @param fileName Name of the file to save
-     * @return Full path of the saved file, or null if saving failed
+     * מציג פרופיל חדש: ברכה ותמונה בכל שינוי; את שדות הטופס ממלאים פעם אחת,
+     * כשמסמך המשתמש נטען, כדי לא לדרוס את מה שהמשתמש כבר הקליד.
      */
-    private String saveImageToInternalStorage(Bitmap bitmap, String fileName) {
-        File directory = getFilesDir();
-        File file = new File(directory, fileName);
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            bitmap.compress(Bitmap.CompressFormat.PNG, 100, fos);
-            fos.flush();
-            return file.getAbsolutePath(); // זה מה שצריך לשמור ב-SharedPreferences
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
+    private void showProfile(UserProfile profile) {
+        TextView greetingText = findViewById(R.id.text_greeting);
+        greetingText.setText("Hello " + profile.getName());
 
-    /**
-     * טעינת תמונת הפרופיל מה-SharedPreferences והצגתה ב-UI (אם קיימת).
-     * מחפש לפי מפתח פר-משתמש: "profile_image_path_{uid}".
-     */
-    private void loadProfileImageFromPrefs() {
-        String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
-        String imagePath = getSharedPreferences("user_prefs", MODE_PRIVATE)
-                .getString("profile_image_path_" + uid, null);
+        showProfileImage(profile);
 
+        if (fieldsFilled || !profile.isDocumentLoaded()) return;
+        fieldsFilled = true;
 
-        Log.d("PROFILE_DEBUG", "Image URI from prefs: " + imagePath);
+        // מילוי שדות UI בהתאם לנתונים
+        if (profile.getName() != null) editName.setText(profile.getName());
+        if (profile.getAge() != null) editAge.setText(profile.getAge());
+        if (profile.getPhone() != null) editPhone.setText(profile.getPhone());
 
-        if (imagePath != null) {
-            File imgFile = new File(imagePath);
-            Log.d("PROFILE_DEBUG", "✔ Checking file exists at: " + imagePath + ", exists=" + imgFile.exists());
-            if (imgFile.exists()) {
-                Glide.with(this)
-                        .load(imgFile)
-                        .placeholder(R.drawable.profile_placeholder)
-                        .circleCrop()
-                        .into((ImageButton) findViewById(R.id.btn_upload));
-            } else {
-                Log.d("PROFILE_DEBUG", "⚠ imagePath exists=false: " + imagePath);
-            }
-        } else {
-            Log.d("PROFILE_DEBUG", "⚠ imagePath is null");
+        if (profile.getGender() != null) {
+            int genderIndex = ((ArrayAdapter) spGender.getAdapter()).getPosition(profile.getGender());
+            spGender.setSelection(genderIndex);
         }
-    }
 
+        if (profile.getLevel() != null) {
+            int levelIndex = ((ArrayAdapter) spLevel.getAdapter()).getPosition(profile.getLevel());
+            spLevel.setSelection(levelIndex);
+        }
+    }
 
+    /**
+     * טעינת תמונת הפרופיל והצגתה ב-UI (אם קיימת) דרך AvatarLoader:
+     * הגרסה בגודל הכפתור, עם מפתח cache לפי גרסת התמונה – כך שתמונה חדשה באותו נתיב
+     * נטענת מחדש בלי לכבות את ה-cache של Glide.
+     */
+    private void showProfileImage(UserProfile profile) {
+        AppLog.d(AppLog.Tag.PROFILE_DEBUG, () -> "Image path from profile: " + profile.getImageUri()
+                + ", version=" + profile.getImageVersion());
+        AvatarLoader.load(findViewById(R.id.btn_upload), profile, AvatarLoader.Size.TOOLBAR);
+    }
 
     /**
      * פתיחת אפליקציית המצלמה לצילום תמונת פרופיל.
@@ -340,109 +278,60 @@ public class SettingsActivity extends AppCompatActivity {
         startActivityForResult(intent, REQUEST_GALLERY);
     }
     /**
-     /**
      * קליטת תוצאות מהמצלמה/גלריה:
-     * - המרה ל-Bitmap
-     * - שמירה לקובץ פנימי (profile_{uid}.png)
-     * - שמירת נתיב ב-SharedPreferences
-     * - עדכון UserManager והצגת התמונה עם Glide
+     * - תצוגה מיידית של התמונה שנבחרה
+     * - עיבוד ברקע עם ProfileImageIngestor: הקטנה, תיקון כיוון (EXIF), WebP, כתיבה אטומית
+     *   לקובץ פנימי (profile_{uid}.webp)
+     * - בסיום: ה-ingestor שומר את הנתיב בפרופיל (UserProfileStore), והמסך מציג אותו דרך הצפייה בפרופיל
      *
-     * NOTE: כאן מתבצע IO על ה-UI Thread עבור קובץ קטן; לקבצים גדולים מומלץ להעביר ל-Background.
+     * NOTE: ה-UI Thread לא מפענח ולא כותב את התמונה – רק מציג אותה.
      */
     @Override
     protected void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
 
         if (resultCode == RESULT_OK && data != null) {
-            isNewImageSelected = true;
             String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
             File imageFile = new File(getFilesDir(), getProfileImageFilename(uid));
+            ImageButton btnUpload = findViewById(R.id.btn_upload);
+            ProfileImageIngestor ingestor = ProfileImageIngestor.getInstance(this);
 
             if (requestCode == REQUEST_CAMERA) {
                 // מצלמה מחזירה לרוב thumbnail קטן דרך extras
                 Bitmap photo = (Bitmap) data.getExtras().get("data");
+                if (photo == null) return;
                 // תצוגה מיידית של התמונה
                 Glide.with(this)
                         .load(photo)
                         .circleCrop()
                         .placeholder(R.drawable.profile_placeholder)
-                        .into((ImageButton) findViewById(R.id.btn_upload));
-
-                try {
-                    if (imageFile.exists()) {
-                        imageFile.delete(); // מנקה קובץ קודם
-                    }
-
-                    FileOutputStream fos = new FileOutputStream(imageFile);
-                    photo.compress(Bitmap.CompressFormat.PNG, 100, fos);
-                    fos.close();
-
-                    String imagePath = imageFile.getAbsolutePath();
-                    getSharedPreferences("user_prefs", MODE_PRIVATE)
-                            .edit()
-                            .putString("profile_image_path_" + uid, imagePath)
-                            .apply();
-                    UserManager.setImageUri(imagePath);
-                    imageUri = Uri.fromFile(imageFile);
-
-                    loadProfileImageFromPrefs();// טעינה חוזרת לוודא שהקובץ נשמר כראוי
-
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            } else if (requestCode == REQUEST_GALLERY) {
-                // גלריה מחזירה Uri; קוראים את התוכן ושומרים כקובץ פנימי
-                Uri selectedImage = data.getData();
-
-                try {
-                    InputStream inputStream = getContentResolver().openInputStream(selectedImage);
-                    Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-                    inputStream.close();
-
-                    FileOutputStream fos = new FileOutputStream(imageFile);
-                    bitmap.compress(Bitmap.CompressFormat.PNG, 100, fos);
-                    fos.close();
-
-                    String imagePath = imageFile.getAbsolutePath();
-                    getSharedPreferences("user_prefs", MODE_PRIVATE)
-                            .edit()
-                            .putString("profile_image_path_" + uid, imagePath)
-                            .apply();
-                    UserManager.setImageUri(imagePath);
-                    imageUri = Uri.fromFile(imageFile);
-
-                    Glide.with(this)
-                            .load(imageFile)
-                            .placeholder(R.drawable.profile_placeholder)
-                            .circleCrop()
-                            .skipMemoryCache(true)
-                            .diskCacheStrategy(DiskCacheStrategy.NONE)
-                            .into((ImageButton) findViewById(R.id.btn_upload));
-
-                    loadProfileImageFromPrefs();
-
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+                        .into(btnUpload);
+                ingestor.ingest(photo, imageFile);
+            } else if (requestCode == REQUEST_GALLERY && data.getData() != null) {
+                // גלריה מחזירה Uri; Glide מפענח בגודל הכפתור בלבד, והעיבוד לקובץ נעשה ברקע
+                Glide.with(this)
+                        .load(data.getData())
+                        .placeholder(R.drawable.profile_placeholder)
+                        .circleCrop()
+                        .into(btnUpload);
+                ingestor.ingest(data.getData(), imageFile);
             }
         }
     }
 
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putInt(STATE_SEEN_FAILURES, seenImageFailures);
+    }
+
     /**
      * ולידציה להפעלת/כיבוי כפתור Continue.
-     * כרגע בודקת רק שהטלפון לא ריק; ניתן להרחיב (שם/גיל/רמה).
+     * כרגע בודקת שהטלפון לא ריק ושאין תמונה בעיבוד; ניתן להרחיב (שם/גיל/רמה).
      */
     private void validateFields() {
-        boolean ok = !TextUtils.isEmpty(editPhone.getText());
+        boolean ok = !TextUtils.isEmpty(editPhone.getText()) && !imagePending;
         btnContinue.setEnabled(ok);
     }
-    /**
-     * onResume – נטען שוב את תמונת הפרופיל מה-Prefs למקרה שנעשו שינויים.
-     */
-    @Override
-    protected void onResume() {
-        super.onResume();
-        loadProfileImageFromPrefs();  // טוען שוב את התמונה מה־SharedPreferences
-    }
 
 }
@@ -0,0 +1,218 @@
+/**
+ * {@code UserLessonState} holds the signed-in user's per-lesson state (favorite and watched
+ * lesson ids) in memory and publishes it as immutable {@link Snapshot}s.
+ *
+ * <p>The state is read from SharedPreferences once per user, on a background thread, instead of
+ * on every list row bind. Lists observe {@link #getSnapshots()} and hand each snapshot to their
+ * adapter, so a bind is two hash lookups with no allocation and no preference access.</p>
+ *
+ * <p>Changes ({@link #setFavorite}, {@link #setWatched}) are applied on the same background
+ * thread, after the initial load. Favorites are stored and synced by the user's
+ * {@link FavoritesEngine}, watched lessons by {@link LocalStorageManager}.</p>
+ *
+ * <p>While the snapshots are observed, the engine's remote sync is on, so favorites changed on
+ * another device show up as new snapshots.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * UserLessonState.getInstance(context).getSnapshots()
+ *         .observe(getViewLifecycleOwner(), adapter::setUserState);
+ * }</pre>
+ */
+package com.example.sambaapp.user;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.sambaapp.core.LocalStorageManager;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class UserLessonState {
+
+    private static UserLessonState instance;
+
+    private final Context appContext;
+    private final String uid;
+    private final FavoritesEngine favorites;
+    private final FavoritesEngine.Listener remoteChanges = this::onRemoteFavorites;
+    /** Loads and persists the state; all changes are applied here, in order */
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    private final SnapshotLiveData snapshots = new SnapshotLiveData();
+    /** Latest snapshot; written on {@link #io} only */
+    private volatile Snapshot current = Snapshot.EMPTY;
+
+    private UserLessonState(Context context, String uid) {
+        this.appContext = context.getApplicationContext();
+        this.uid = uid;
+        this.favorites = FavoritesEngine.getInstance(appContext, uid);
+        favorites.addListener(remoteChanges);
+        io.execute(this::load);
+    }
+
+    /**
+     * Returns the state of the signed-in user, starting a fresh load when the user changed.
+     *
+     * @param context Any context; the application context is kept
+     * @return The state of the current user
+     */
+    public static synchronized UserLessonState getInstance(Context context) {
+        String uid = UserManager.getUid();
+        if (instance == null || !instance.uid.equals(uid)) {
+            if (instance != null) {
+                instance.favorites.stopRemoteSync();
+                instance.favorites.removeListener(instance.remoteChanges);
+                instance.io.shutdown();
+            }
+            instance = new UserLessonState(context, uid);
+        }
+        return instance;
+    }
+
+    /** @return Observable snapshots; {@link Snapshot#EMPTY} until the initial load finishes */
+    public LiveData<Snapshot> getSnapshots() {
+        return snapshots;
+    }
+
+    /** @return The latest snapshot, readable from any thread */
+    public Snapshot getSnapshot() {
+        return current;
+    }
+
+    /**
+     * Marks or unmarks a lesson as favorite through the {@link FavoritesEngine}.
+     *
+     * @param lessonId The lesson's id
+     * @param favorite Whether the lesson is a favorite
+     */
+    public void setFavorite(String lessonId, boolean favorite) {
+        if (lessonId == null) return;
+        io.execute(() -> {
+            Snapshot next = current.withFavorite(lessonId, favorite);
+            if (next == current) return;
+            publish(next);
+            favorites.setFavorite(lessonId, favorite);
+        });
+    }
+
+    /**
+     * Marks or unmarks a lesson as watched and persists the change locally.
+     *
+     * @param lessonId The lesson's id
+     * @param watched  Whether the lesson was watched
+     */
+    public void setWatched(String lessonId, boolean watched) {
+        if (lessonId == null) return;
+        io.execute(() -> {
+            Snapshot next = current.withWatched(lessonId, watched);
+            if (next == current) return;
+            publish(next);
+            new LocalStorageManager(appContext).setWatched(lessonId, watched);
+        });
+    }
+
+    private void load() {
+        Set<String> favoriteIds = new HashSet<>(favorites.getFavorites());
+        Set<String> watched = new HashSet<>(new LocalStorageManager(appContext).getWatchedLessons());
+        Log.d("USER_STATE", "📥 Loaded " + favoriteIds.size() + " favorites, " + watched.size() + " watched");
+        publish(new Snapshot(favoriteIds, watched));
+    }
+
+    private void publish(Snapshot next) {
+        current = next;
+        snapshots.postValue(next);
+    }
+
+    /** Republishes the favorites after the engine applied remote changes */
+    private void onRemoteFavorites() {
+        if (io.isShutdown()) return;
+        io.execute(() -> {
+            Set<String> favoriteIds = new HashSet<>(favorites.getFavorites());
+            if (favoriteIds.equals(current.favorites)) return;
+            publish(new Snapshot(favoriteIds, current.watched));
+        });
+    }
+
+    /** Snapshots LiveData that listens to the remote favorites while it is observed */
+    private class SnapshotLiveData extends MutableLiveData<Snapshot> {
+        SnapshotLiveData() {
+            super(Snapshot.EMPTY);
+        }
+
+        @Override
+        protected void onActive() {
+            favorites.startRemoteSync();
+        }
+
+        @Override
+        protected void onInactive() {
+            favorites.stopRemoteSync();
+        }
+    }
+
+    /**
+     * An immutable view of the user's favorite and watched lesson ids.
+     */
+    public static final class Snapshot {
+
+        /** The state before anything was loaded */
+        public static final Snapshot EMPTY =
+                new Snapshot(Collections.<String>emptySet(), Collections.<String>emptySet());
+
+        // Never modified after construction, so unchanged sets are shared between snapshots
+        private final Set<String> favorites;
+        private final Set<String> watched;
+
+        private Snapshot(Set<String> favorites, Set<String> watched) {
+            this.favorites = favorites;
+            this.watched = watched;
+        }
+
+        /**
+         * @param lessonId The lesson's id
+         * @return {@code true} if the user marked the lesson as favorite
+         */
+        public boolean isFavorite(String lessonId) {
+            return lessonId != null && favorites.contains(lessonId);
+        }
+
+        /**
+         * @param lessonId The lesson's id
+         * @return {@code true} if the user watched the lesson
+         */
+        public boolean isWatched(String lessonId) {
+            return lessonId != null && watched.contains(lessonId);
+        }
+
+        /** @return The favorite lesson ids (unmodifiable) */
+        public Set<String> getFavorites() {
+            return Collections.unmodifiableSet(favorites);
+        }
+
+        /** @return The watched lesson ids (unmodifiable) */
+        public Set<String> getWatched() {
+            return Collections.unmodifiableSet(watched);
+        }
+
+        Snapshot withFavorite(String lessonId, boolean favorite) {
+            if (favorites.contains(lessonId) == favorite) return this;
+            Set<String> next = new HashSet<>(favorites);
+            if (favorite) next.add(lessonId); else next.remove(lessonId);
+            return new Snapshot(next, watched);
+        }
+
+        Snapshot withWatched(String lessonId, boolean isWatched) {
+            if (watched.contains(lessonId) == isWatched) return this;
+            Set<String> next = new HashSet<>(watched);
+            if (isWatched) next.add(lessonId); else next.remove(lessonId);
+            return new Snapshot(favorites, next);
+        }
+    }
+}
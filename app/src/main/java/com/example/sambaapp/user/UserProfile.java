@@ -0,0 +1,233 @@
+/**
+ * {@code UserProfile} is an immutable snapshot of the signed-in user's profile: the fields of the
+ * {@code users/{uid}} document plus the locally saved profile image path.
+ *
+ * <p>Profiles are published by {@link UserProfileStore}; a change produces a new instance through
+ * one of the {@code with...} methods, so a profile handed to a screen never changes under it.</p>
+ *
+ * <p>A {@code "Guide"} role is normalized to {@code "Instructor"}, as everywhere in the app.</p>
+ */
+package com.example.sambaapp.user;
+
+import androidx.annotation.NonNull;
+
+import com.example.sambaapp.core.AppPrefs;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Objects;
+
+public final class UserProfile {
+
+    // Keys of the profile fields in the user preferences
+    static final String KEY_NAME = "user_name";
+    static final String KEY_AGE = "user_age";
+    static final String KEY_EMAIL = "user_email";
+    static final String KEY_ROLE = "user_role";
+    static final String KEY_IS_INSTRUCTOR = "user_is_instructor";
+    static final String KEY_IMAGE_PATH_PREFIX = "profile_image_path_";
+    static final String KEY_IMAGE_VERSION_PREFIX = "profile_image_version_";
+
+    private final String uid;
+    private final String name;
+    private final String age;
+    private final String email;
+    private final String role;
+    private final String phone;
+    private final String gender;
+    private final String level;
+    /** Local profile image file saved on this device */
+    private final String imagePath;
+    /** Modification time of the local image when it was stored; keys the image caches */
+    private final long imageVersion;
+    /** Image path stored in the user document */
+    private final String remoteImageUri;
+    private final boolean healthDone;
+    private final boolean settingsDone;
+    /** Whether the user document (from the cache or the server) was applied */
+    private final boolean documentLoaded;
+
+    private UserProfile(String uid, String name, String age, String email, String role,
+                        String phone, String gender, String level, String imagePath,
+                        long imageVersion, String remoteImageUri, boolean healthDone, boolean settingsDone,
+                        boolean documentLoaded) {
+        this.uid = uid;
+        this.name = name;
+        this.age = age;
+        this.email = email;
+        this.role = normalizeRole(role);
+        this.phone = phone;
+        this.gender = gender;
+        this.level = level;
+        this.imagePath = imagePath;
+        this.imageVersion = imageVersion;
+        this.remoteImageUri = remoteImageUri;
+        this.healthDone = healthDone;
+        this.settingsDone = settingsDone;
+        this.documentLoaded = documentLoaded;
+    }
+
+    /**
+     * The profile saved on this device, read from the in-memory preferences.
+     *
+     * @param uid     The user's id
+     * @param details The preferences holding this user's basic details, or {@code null} if
+     *                they hold another user's; the image path is per user and always read
+     * @param images  The user preferences
+     * @param email   The sign-in email, used when no email was saved
+     */
+    static UserProfile fromPrefs(String uid, AppPrefs details, AppPrefs images, String email) {
+        return new UserProfile(uid,
+                details != null ? details.getString(KEY_NAME, null) : null,
+                details != null ? details.getString(KEY_AGE, null) : null,
+                orElse(details != null ? details.getString(KEY_EMAIL, null) : null, email),
+                details != null ? details.getString(KEY_ROLE, null) : null,
+                null, null, null,
+                images.getString(KEY_IMAGE_PATH_PREFIX + uid, null),
+                images.getLong(KEY_IMAGE_VERSION_PREFIX + uid, 0),
+                null, false, false, false);
+    }
+
+    /**
+     * @param doc The user's {@code users/{uid}} document
+     * @return This profile with the document's fields applied; fields it lacks are kept
+     */
+    UserProfile withDocument(DocumentSnapshot doc) {
+        return new UserProfile(uid,
+                orElse(doc.getString("name"), name),
+                orElse(doc.getString("age"), age),
+                orElse(doc.getString("email"), email),
+                orElse(doc.getString("role"), role),
+                orElse(doc.getString("phone"), phone),
+                orElse(doc.getString("gender"), gender),
+                orElse(doc.getString("level"), level),
+                imagePath,
+                imageVersion,
+                orElse(doc.getString("imageUri"), remoteImageUri),
+                Boolean.TRUE.equals(doc.getBoolean("healthDone")),
+                Boolean.TRUE.equals(doc.getBoolean("settingsDone")),
+                true);
+    }
+
+    /** @return This profile with the basic details changed on this device */
+    UserProfile withInfo(String name, String age, String email, String role) {
+        return new UserProfile(uid, name, age, email, role, phone, gender, level, imagePath,
+                imageVersion, remoteImageUri, healthDone, settingsDone, documentLoaded);
+    }
+
+    /** @return This profile with a new local profile image file (or none) and its version */
+    UserProfile withImagePath(String path, long version) {
+        return new UserProfile(uid, name, age, email, role, phone, gender, level, path,
+                version, remoteImageUri, healthDone, settingsDone, documentLoaded);
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    /** @return The user's name, or "Unknown" if not known yet */
+    public String getName() {
+        return name != null ? name : "Unknown";
+    }
+
+    String getNameOrNull() {
+        return name;
+    }
+
+    public String getAge() {
+        return age;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public boolean isInstructor() {
+        return "Instructor".equalsIgnoreCase(role);
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    /** @return The local profile image file path saved on this device, or {@code null} */
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    /** @return The version of the local profile image, or 0 if unknown */
+    public long getImageVersion() {
+        return imageVersion;
+    }
+
+    /** @return The profile image to show: the local file if saved, else the document's path */
+    public String getImageUri() {
+        return imagePath != null && !imagePath.isEmpty() ? imagePath : remoteImageUri;
+    }
+
+    public boolean isHealthDone() {
+        return healthDone;
+    }
+
+    public boolean isSettingsDone() {
+        return settingsDone;
+    }
+
+    /** @return {@code true} once the user document was applied */
+    public boolean isDocumentLoaded() {
+        return documentLoaded;
+    }
+
+    private static String normalizeRole(String role) {
+        return "Guide".equalsIgnoreCase(role) ? "Instructor" : role;
+    }
+
+    private static String orElse(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserProfile)) return false;
+        UserProfile other = (UserProfile) o;
+        return healthDone == other.healthDone
+                && settingsDone == other.settingsDone
+                && documentLoaded == other.documentLoaded
+                && Objects.equals(uid, other.uid)
+                && Objects.equals(name, other.name)
+                && Objects.equals(age, other.age)
+                && Objects.equals(email, other.email)
+                && Objects.equals(role, other.role)
+                && Objects.equals(phone, other.phone)
+                && Objects.equals(gender, other.gender)
+                && Objects.equals(level, other.level)
+                && Objects.equals(imagePath, other.imagePath)
+                && imageVersion == other.imageVersion
+                && Objects.equals(remoteImageUri, other.remoteImageUri);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(uid, name, age, email, role, phone, gender, level, imagePath,
+                imageVersion, remoteImageUri, healthDone, settingsDone, documentLoaded);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "UserProfile{name=" + name + ", role=" + role + ", level=" + level
+                + ", healthDone=" + healthDone + ", settingsDone=" + settingsDone + "}";
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * {@code UserProfileStore} holds the signed-in user's {@link UserProfile} and publishes it to the
+ * screens that observe {@link #getProfile()}.
+ *
+ * <p>The profile is read once from the in-memory user preferences when the store is created, so
+ * a screen shows the last known profile right away. The store then keeps a single snapshot
+ * listener on the {@code users/{uid}} document for the rest of the process; every change of the
+ * document publishes a new profile. Screens no longer fetch the document themselves, and nothing
+ * re-reads the preferences on {@code onResume}.</p>
+ *
+ * <p>{@link #getDocumentProfile()}, which the start screen routes on, waits for the document from
+ * the server: right after sign-in on a new device the cached document is missing or stale. When
+ * the server does not answer within {@link #SERVER_WAIT_MS} (e.g. offline), a cached document is
+ * used instead; without one the task fails as offline. The task resolves to the latest profile
+ * when it is read, so a later sign-in of the same user routes on the current flags.</p>
+ *
+ * <p>Local changes ({@link #updateInfo}, {@link #setImagePath}) publish a new profile and save
+ * the changed fields to the preferences, so the next start shows them immediately.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * UserProfileStore.getInstance(this).getProfile().observe(this, profile ->
+ *         tvHello.setText("Hello " + profile.getName()));
+ * }</pre>
+ */
+package com.example.sambaapp.user;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.sambaapp.core.AppPrefs;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+
+public final class UserProfileStore {
+
+    private static final String TAG = "USER_PROFILE";
+    /** The user whose basic details are saved in the preferences */
+    private static final String KEY_SAVED_UID = "user_uid";
+    /** How long {@link #getDocumentProfile()} waits for the server before using the cache */
+    static final long SERVER_WAIT_MS = 3_000;
+
+    private static UserProfileStore instance;
+
+    private final String uid;
+    private final AppPrefs prefs;
+    private final MutableLiveData<UserProfile> profile;
+    /** Latest profile, readable from any thread */
+    private volatile UserProfile current;
+    /** The one listener on {@code users/{uid}} */
+    private ListenerRegistration registration;
+    /**
+     * Completed by the first server snapshot of the user document, or by the cache after
+     * {@link #SERVER_WAIT_MS}; {@code true} if the document exists
+     */
+    private final TaskCompletionSource<Boolean> firstDocument = new TaskCompletionSource<>();
+    private final Handler main = new Handler(Looper.getMainLooper());
+    /** Whether the latest snapshot, cached or not, had the document; main thread only */
+    private boolean documentExists;
+
+    private UserProfileStore(Context context, String uid) {
+        this.uid = uid;
+        this.prefs = AppPrefs.get(context, AppPrefs.USER);
+        // The saved profile belongs to one user; another user starts empty
+        String savedUid = prefs.getString(KEY_SAVED_UID, uid);
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        this.current = UserProfile.fromPrefs(uid, savedUid.equals(uid) ? prefs : null, prefs,
+                user != null ? user.getEmail() : null);
+        this.profile = new MutableLiveData<>(current);
+        if (!"unknown_uid".equals(uid)) {
+            registration = FirebaseFirestore.getInstance()
+                    .collection("users")
+                    .document(uid)
+                    // Also reports when a cached snapshot is confirmed by the server
+                    .addSnapshotListener(MetadataChanges.INCLUDE, (doc, e) -> {
+                        if (e != null) {
+                            Log.e(TAG, "❌ User document listener failed", e);
+                            firstDocument.trySetException(e);
+                            return;
+                        }
+                        if (doc == null) return;
+                        documentExists = doc.exists();
+                        if (doc.exists()) {
+                            UserProfile next = current.withDocument(doc);
+                            save(next);
+                            publish(next);
+                        }
+                        if (!doc.getMetadata().isFromCache()) {
+                            firstDocument.trySetResult(doc.exists());
+                        }
+                    });
+            main.postDelayed(this::completeFromCache, SERVER_WAIT_MS);
+        }
+    }
+
+    /**
+     * Completes {@link #getDocumentProfile()} from the cache when the server did not answer in
+     * time. Without a cached document there is nothing to route on, so the task fails as offline.
+     */
+    private void completeFromCache() {
+        if (firstDocument.getTask().isComplete()) return;
+        if (documentExists) {
+            Log.w(TAG, "⏳ No answer from the server; using the cached user document");
+            firstDocument.trySetResult(true);
+        } else {
+            Log.w(TAG, "📴 No answer from the server and no cached user document");
+            firstDocument.trySetException(new FirebaseFirestoreException(
+                    "Failed to get document because the client is offline.",
+                    FirebaseFirestoreException.Code.UNAVAILABLE));
+        }
+    }
+
+    /**
+     * Returns the profile store of the signed-in user, replacing the previous user's store.
+     *
+     * @param context Any context; only the application context is used
+     * @return The current user's store
+     */
+    public static synchronized UserProfileStore getInstance(Context context) {
+        String uid = UserManager.getUid();
+        if (instance == null || !instance.uid.equals(uid)) {
+            if (instance != null && instance.registration != null) {
+                instance.registration.remove();
+            }
+            instance = new UserProfileStore(context.getApplicationContext(), uid);
+        }
+        return instance;
+    }
+
+    /** @return Observable profiles; starts with the profile saved on this device */
+    public LiveData<UserProfile> getProfile() {
+        return profile;
+    }
+
+    /** @return The latest profile */
+    public UserProfile get() {
+        return current;
+    }
+
+    /**
+     * @return A task completing with the latest profile once the user document was read from
+     * the server (or, after {@link #SERVER_WAIT_MS} without an answer, from the cache), or with
+     * {@code null} if the document does not exist; failing if neither had the document
+     */
+    public Task<UserProfile> getDocumentProfile() {
+        return firstDocument.getTask().continueWith(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+            // Read now, not when the document first arrived: the flags may have changed since
+            return Boolean.TRUE.equals(task.getResult()) ? current : null;
+        });
+    }
+
+    /** Changes the basic profile details locally, e.g. right after registration. */
+    public void updateInfo(String name, String age, String email, String role) {
+        UserProfile next = current.withInfo(name, age, email, role);
+        save(next);
+        publish(next);
+    }
+
+    /**
+     * Sets the local profile image file of the user.
+     *
+     * @param path    Absolute file path, or {@code null} to forget it
+     * @param version The file's modification time when it was stored; a new version makes
+     *                every avatar reload the image even if the path is unchanged
+     */
+    public void setImagePath(String path, long version) {
+        prefs.edit()
+                .putString(UserProfile.KEY_IMAGE_PATH_PREFIX + uid, path)
+                .putLong(UserProfile.KEY_IMAGE_VERSION_PREFIX + uid, version)
+                .apply();
+        publish(current.withImagePath(path, version));
+    }
+
+    /** Saves the basic details so the next start shows them at once; unchanged values write nothing */
+    private void save(UserProfile next) {
+        prefs.edit()
+                .putString(KEY_SAVED_UID, uid)
+                .putString(UserProfile.KEY_NAME, next.getNameOrNull())
+                .putString(UserProfile.KEY_AGE, next.getAge())
+                .putString(UserProfile.KEY_EMAIL, next.getEmail())
+                .putString(UserProfile.KEY_ROLE, next.getRole())
+                .putBoolean(UserProfile.KEY_IS_INSTRUCTOR, next.isInstructor())
+                .apply();
+    }
+
+    private synchronized void publish(UserProfile next) {
+        if (next.equals(current)) return;
+        current = next;
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            profile.setValue(next);
+        } else {
+            profile.postValue(next);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.sambaapp.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link JournaledSetStore}: journal replay, compaction and recovery from a
+ * crash mid-append.
+ */
+public class JournaledSetStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File journal() {
+        return new File(folder.getRoot(), "lesson_sets.journal");
+    }
+
+    private void writeJournal(String text) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(journal())) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private int journalLines() throws IOException {
+        return Files.readAllLines(journal().toPath(), StandardCharsets.UTF_8).size();
+    }
+
+    @Test
+    public void changes_surviveReopening() throws Exception {
+        JournaledSetStore store = new JournaledSetStore(journal());
+        store.add("favorites", "a");
+        store.add("favorites", "b");
+        store.add("watched", "a");
+        store.remove("favorites", "a");
+        store.flushAndWait();
+
+        JournaledSetStore reopened = new JournaledSetStore(journal());
+        assertEquals(new HashSet<>(Arrays.asList("b")), reopened.view("favorites"));
+        assertTrue(reopened.contains("watched", "a"));
+    }
+
+    @Test
+    public void replay_appliesLinesInOrder() throws Exception {
+        writeJournal("+favorites\ta\n"
+                + "-favorites\ta\n"
+                + "+favorites\ta\n"
+                + "+favorites\tb\n"
+                + "-favorites\tb\n"
+                + "+watched\tc\n");
+
+        JournaledSetStore store = new JournaledSetStore(journal());
+
+        assertEquals(new HashSet<>(Arrays.asList("a")), store.view("favorites"));
+        assertEquals(new HashSet<>(Arrays.asList("c")), store.view("watched"));
+    }
+
+    @Test
+    public void replay_skipsMalformedLines() throws Exception {
+        writeJournal("garbage\n\n+\n+favorites\ta\n*favorites\tb\n");
+
+        JournaledSetStore store = new JournaledSetStore(journal());
+
+        assertEquals(new HashSet<>(Arrays.asList("a")), store.view("favorites"));
+    }
+
+    @Test
+    public void ids_withSeparatorsRoundTrip() throws Exception {
+        String id = "tab\there\nnewline\\backslash";
+        JournaledSetStore store = new JournaledSetStore(journal());
+        store.add("favorites", id);
+        store.add("favorites", "plain");
+        store.flushAndWait();
+
+        JournaledSetStore reopened = new JournaledSetStore(journal());
+        assertEquals(new HashSet<>(Arrays.asList(id, "plain")), reopened.view("favorites"));
+        assertEquals(2, journalLines());
+    }
+
+    @Test
+    public void smallBatch_isAppended() throws Exception {
+        writeJournal("+favorites\ta\n-favorites\ta\n");
+        JournaledSetStore store = new JournaledSetStore(journal());
+        store.add("favorites", "b");
+        store.flushAndWait();
+
+        // Appended after the two existing lines, not compacted
+        assertEquals(3, journalLines());
+        assertEquals(new HashSet<>(Arrays.asList("b")),
+                new JournaledSetStore(journal()).view("favorites"));
+    }
+
+    @Test
+    public void grownJournal_isCompacted() throws Exception {
+        JournaledSetStore store = new JournaledSetStore(journal());
+        store.add("favorites", "kept");
+        for (int i = 0; i < 200; i++) {
+            store.add("favorites", "toggled");
+            store.remove("favorites", "toggled");
+        }
+        store.flushAndWait();
+
+        // 401 changes for one live entry: the journal is rewritten as that entry alone
+        assertEquals(1, journalLines());
+        assertFalse(new File(journal().getPath() + ".tmp").exists());
+        assertEquals(new HashSet<>(Arrays.asList("kept")),
+                new JournaledSetStore(journal()).view("favorites"));
+    }
+
+    @Test
+    public void crashMidAppend_dropsCutOffLine() throws Exception {
+        writeJournal("+favorites\ta\n+favorites\tb");
+
+        JournaledSetStore store = new JournaledSetStore(journal());
+
+        assertEquals(new HashSet<>(Arrays.asList("a")), store.view("favorites"));
+    }
+
+    @Test
+    public void crashMidAppend_laterAppendsStayIntact() throws Exception {
+        writeJournal("+favorites\ta\n+favorites\tb");
+        JournaledSetStore store = new JournaledSetStore(journal());
+        store.add("favorites", "c");
+        store.flushAndWait();
+
+        // The cut-off line must not swallow the line appended after it
+        JournaledSetStore reopened = new JournaledSetStore(journal());
+        assertEquals(new HashSet<>(Arrays.asList("a", "c")), reopened.view("favorites"));
+    }
+
+    @Test
+    public void missingJournal_startsEmpty() {
+        JournaledSetStore store = new JournaledSetStore(journal());
+
+        assertTrue(store.view("favorites").isEmpty());
+        assertFalse(store.contains("favorites", null));
+        assertFalse(journal().exists());
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.sambaapp.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the queue logic of {@link WriteOutbox}: coalescing, requeueing, backoff
+ * and the handling of rejected writes.
+ */
+public class WriteOutboxTest {
+
+    private static final String PATH = "lessons/abc";
+
+    private static Map<String, Object> fields(Object... keysAndValues) {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+
+    private static WriteOutbox.Op op(WriteOutbox.Type type, String path, Map<String, Object> data) {
+        return new WriteOutbox.Op(type, path, data, false);
+    }
+
+    private static WriteOutbox.Op toggle(String path, boolean present) {
+        return new WriteOutbox.Op(present ? WriteOutbox.Type.SET : WriteOutbox.Type.DELETE,
+                path, Collections.<String, Object>emptyMap(), true);
+    }
+
+    private static WriteOutbox.Entry entry(WriteOutbox.Op op) {
+        return new WriteOutbox.Entry(op, 0, null);
+    }
+
+    // --------------------------
+    // Coalescing
+    // --------------------------
+
+    @Test
+    public void combine_updatesKeepLastValuePerField() {
+        WriteOutbox.Op combined = WriteOutbox.combine(
+                op(WriteOutbox.Type.UPDATE, PATH, fields("title", "a", "time", "10:00")),
+                op(WriteOutbox.Type.UPDATE, PATH, fields("title", "b")));
+
+        assertEquals(WriteOutbox.Type.UPDATE, combined.type);
+        assertEquals(fields("title", "b", "time", "10:00"), combined.data);
+    }
+
+    @Test
+    public void combine_fieldChangesFoldIntoSet() {
+        WriteOutbox.Op combined = WriteOutbox.combine(
+                op(WriteOutbox.Type.SET, PATH, fields("title", "a", "likes", 0)),
+                op(WriteOutbox.Type.UPDATE, PATH, fields("likes", 1)));
+
+        assertEquals(WriteOutbox.Type.SET, combined.type);
+        assertEquals(fields("title", "a", "likes", 1), combined.data);
+    }
+
+    @Test
+    public void combine_mergeAfterUpdateBecomesMerge() {
+        WriteOutbox.Op combined = WriteOutbox.combine(
+                op(WriteOutbox.Type.UPDATE, PATH, fields("title", "a")),
+                op(WriteOutbox.Type.MERGE, PATH, fields("level", "Beginners")));
+
+        assertEquals(WriteOutbox.Type.MERGE, combined.type);
+        assertEquals(fields("title", "a", "level", "Beginners"), combined.data);
+    }
+
+    @Test
+    public void combine_setAndDeleteReplaceQueuedWrite() {
+        WriteOutbox.Op older = op(WriteOutbox.Type.UPDATE, PATH, fields("title", "a"));
+        WriteOutbox.Op set = op(WriteOutbox.Type.SET, PATH, fields("title", "b"));
+        WriteOutbox.Op delete = op(WriteOutbox.Type.DELETE, PATH, Collections.<String, Object>emptyMap());
+
+        assertSame(set, WriteOutbox.combine(older, set));
+        assertSame(delete, WriteOutbox.combine(older, delete));
+    }
+
+    @Test
+    public void combine_changeAfterDelete() {
+        WriteOutbox.Op delete = op(WriteOutbox.Type.DELETE, PATH, Collections.<String, Object>emptyMap());
+
+        // A merge recreates the document with the merged fields only
+        WriteOutbox.Op merged = WriteOutbox.combine(delete,
+                op(WriteOutbox.Type.MERGE, PATH, fields("title", "a")));
+        assertEquals(WriteOutbox.Type.SET, merged.type);
+        assertEquals(fields("title", "a"), merged.data);
+
+        // An update of the deleted document would fail; the delete stays
+        assertSame(delete, WriteOutbox.combine(delete,
+                op(WriteOutbox.Type.UPDATE, PATH, fields("title", "a"))));
+    }
+
+    @Test
+    public void combine_oppositeTogglesCancel() {
+        assertNull(WriteOutbox.combine(toggle(PATH, true), toggle(PATH, false)));
+        assertNull(WriteOutbox.combine(toggle(PATH, false), toggle(PATH, true)));
+        assertEquals(WriteOutbox.Type.SET,
+                WriteOutbox.combine(toggle(PATH, true), toggle(PATH, true)).type);
+    }
+
+    @Test
+    public void op_copiesCallersMap() {
+        Map<String, Object> data = fields("title", "a");
+        WriteOutbox.Op op = op(WriteOutbox.Type.UPDATE, PATH, data);
+        data.put("title", "b");
+
+        assertEquals("a", op.data.get("title"));
+    }
+
+    // --------------------------
+    // Requeueing failed writes
+    // --------------------------
+
+    @Test
+    public void requeue_putsFailedWritesFirst() {
+        LinkedHashMap<String, WriteOutbox.Entry> queued = new LinkedHashMap<>();
+        queued.put("lessons/c", entry(op(WriteOutbox.Type.UPDATE, "lessons/c", fields("x", 1))));
+        List<WriteOutbox.Entry> failed = Arrays.asList(
+                entry(op(WriteOutbox.Type.UPDATE, "lessons/a", fields("x", 1))),
+                entry(op(WriteOutbox.Type.UPDATE, "lessons/b", fields("x", 1))));
+
+        LinkedHashMap<String, WriteOutbox.Entry> next = WriteOutbox.requeue(queued, failed);
+
+        assertEquals(Arrays.asList("lessons/a", "lessons/b", "lessons/c"), new ArrayList<>(next.keySet()));
+    }
+
+    @Test
+    public void requeue_appliesNewerWriteOnTopOfFailedOne() {
+        LinkedHashMap<String, WriteOutbox.Entry> queued = new LinkedHashMap<>();
+        queued.put(PATH, entry(op(WriteOutbox.Type.UPDATE, PATH, fields("title", "new"))));
+        List<WriteOutbox.Entry> failed = Collections.singletonList(
+                entry(op(WriteOutbox.Type.UPDATE, PATH, fields("title", "old", "time", "10:00"))));
+
+        LinkedHashMap<String, WriteOutbox.Entry> next = WriteOutbox.requeue(queued, failed);
+
+        assertEquals(1, next.size());
+        assertEquals(fields("title", "new", "time", "10:00"), next.get(PATH).op.data);
+    }
+
+    @Test
+    public void requeue_dropsCancelledToggles() {
+        LinkedHashMap<String, WriteOutbox.Entry> queued = new LinkedHashMap<>();
+        queued.put(PATH, entry(toggle(PATH, false)));
+        List<WriteOutbox.Entry> failed = Collections.singletonList(entry(toggle(PATH, true)));
+
+        assertTrue(WriteOutbox.requeue(queued, failed).isEmpty());
+    }
+
+    // --------------------------
+    // Restoring the outbox file
+    // --------------------------
+
+    @Test
+    public void restore_combinesInFlightAndQueuedWrite() {
+        // persist() writes the in-flight write, then the newer queued one, for the same document
+        List<WriteOutbox.Entry> stored = Arrays.asList(
+                entry(op(WriteOutbox.Type.UPDATE, PATH, fields("title", "old", "time", "10:00"))),
+                entry(op(WriteOutbox.Type.UPDATE, "lessons/other", fields("x", 1))),
+                entry(op(WriteOutbox.Type.UPDATE, PATH, fields("title", "new"))));
+
+        LinkedHashMap<String, WriteOutbox.Entry> restored = WriteOutbox.restore(stored);
+
+        assertEquals(2, restored.size());
+        assertEquals(WriteOutbox.Type.UPDATE, restored.get(PATH).op.type);
+        assertEquals(fields("title", "new", "time", "10:00"), restored.get(PATH).op.data);
+    }
+
+    @Test
+    public void restore_keepsDeleteThenRecreate() {
+        List<WriteOutbox.Entry> stored = Arrays.asList(
+                entry(op(WriteOutbox.Type.DELETE, PATH, Collections.<String, Object>emptyMap())),
+                entry(op(WriteOutbox.Type.MERGE, PATH, fields("title", "a"))));
+
+        WriteOutbox.Op restored = WriteOutbox.restore(stored).get(PATH).op;
+
+        assertEquals(WriteOutbox.Type.SET, restored.type);
+        assertEquals(fields("title", "a"), restored.data);
+    }
+
+    @Test
+    public void restore_dropsOppositeToggles() {
+        List<WriteOutbox.Entry> stored = Arrays.asList(
+                entry(toggle(PATH, true)),
+                entry(toggle(PATH, false)));
+
+        assertTrue(WriteOutbox.restore(stored).isEmpty());
+    }
+
+    @Test
+    public void restore_keepsFileOrderOfDistinctDocuments() {
+        List<WriteOutbox.Entry> stored = Arrays.asList(
+                entry(op(WriteOutbox.Type.UPDATE, "lessons/a", fields("x", 1))),
+                entry(op(WriteOutbox.Type.UPDATE, "lessons/b", fields("x", 1))));
+
+        assertEquals(Arrays.asList("lessons/a", "lessons/b"),
+                new ArrayList<>(WriteOutbox.restore(stored).keySet()));
+    }
+
+    // --------------------------
+    // Backoff and rejected writes
+    // --------------------------
+
+    @Test
+    public void backoffCap_doublesUpToMaximum() {
+        assertEquals(WriteOutbox.BASE_BACKOFF_MS * 2, WriteOutbox.backoffCap(1));
+        assertEquals(WriteOutbox.BASE_BACKOFF_MS * 4, WriteOutbox.backoffCap(2));
+        assertEquals(WriteOutbox.MAX_BACKOFF_MS, WriteOutbox.backoffCap(10));
+        // The shift is bounded, so huge attempt counts do not overflow
+        assertEquals(WriteOutbox.MAX_BACKOFF_MS, WriteOutbox.backoffCap(1_000));
+    }
+
+    @Test
+    public void backoffDelay_staysWithinCap() {
+        for (int attempt = 1; attempt < 30; attempt++) {
+            for (int i = 0; i < 100; i++) {
+                long delay = WriteOutbox.backoffDelay(attempt);
+                assertTrue(delay >= 0);
+                assertTrue(delay <= WriteOutbox.backoffCap(attempt));
+            }
+        }
+    }
+
+    @Test
+    public void recovery_transientErrorsAreRetried() {
+        assertEquals(WriteOutbox.Recovery.RETRY, WriteOutbox.recoveryFor(true, 1));
+        assertEquals(WriteOutbox.Recovery.RETRY, WriteOutbox.recoveryFor(true, 20));
+    }
+
+    @Test
+    public void recovery_rejectedBatchIsIsolatedThenDropped() {
+        // A rejected batch is sent one write at a time; only the write rejected alone is dropped
+        assertEquals(WriteOutbox.Recovery.ISOLATE, WriteOutbox.recoveryFor(false, 20));
+        assertEquals(WriteOutbox.Recovery.ISOLATE, WriteOutbox.recoveryFor(false, 2));
+        assertEquals(WriteOutbox.Recovery.DROP, WriteOutbox.recoveryFor(false, 1));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.sambaapp.user;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the avatar variant naming and sizing in {@link AvatarLoader}.
+ */
+public class AvatarLoaderTest {
+
+    @Test
+    public void variantFile_isNextToMaster() {
+        File master = new File("/data/files/profile_images", "profile.webp");
+
+        File variant = AvatarLoader.variantFile(master, 144);
+
+        assertEquals(master.getParentFile(), variant.getParentFile());
+        assertEquals("profile_144.webp", variant.getName());
+    }
+
+    @Test
+    public void variantFile_differsPerSize() {
+        File master = new File("/data/files/profile.webp");
+
+        assertNotEquals(AvatarLoader.variantFile(master, 144), AvatarLoader.variantFile(master, 192));
+    }
+
+    @Test
+    public void toPx_scalesByDensity() {
+        assertEquals(48, AvatarLoader.toPx(1f, AvatarLoader.Size.TOOLBAR));
+        assertEquals(144, AvatarLoader.toPx(3f, AvatarLoader.Size.TOOLBAR));
+        assertEquals(192, AvatarLoader.toPx(3f, AvatarLoader.Size.HEADER));
+    }
+
+    @Test
+    public void toPx_roundsFractionalDensity() {
+        // hdpi: 48dp * 1.5 = 72px, 64dp * 1.5 = 96px
+        assertEquals(72, AvatarLoader.toPx(1.5f, AvatarLoader.Size.TOOLBAR));
+        // 2.625 (e.g. 420dpi): 48dp = 126px, 64dp = 168px
+        assertEquals(126, AvatarLoader.toPx(2.625f, AvatarLoader.Size.TOOLBAR));
+        assertEquals(168, AvatarLoader.toPx(2.625f, AvatarLoader.Size.HEADER));
+    }
+
+    @Test
+    public void header_isLargerThanToolbar() {
+        assertTrue(AvatarLoader.toPx(2f, AvatarLoader.Size.HEADER)
+                > AvatarLoader.toPx(2f, AvatarLoader.Size.TOOLBAR));
+    }
+}
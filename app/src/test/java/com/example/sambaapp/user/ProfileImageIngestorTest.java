@@ -0,0 +1,53 @@
+package com.example.sambaapp.user;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the decode sample size chosen by {@link ProfileImageIngestor}.
+ */
+public class ProfileImageIngestorTest {
+
+    private static final int MAX = ProfileImageIngestor.MAX_SIZE_PX;
+
+    @Test
+    public void sampleSize_smallImageIsNotSampled() {
+        assertEquals(1, ProfileImageIngestor.sampleSize(300, 200, MAX));
+        assertEquals(1, ProfileImageIngestor.sampleSize(MAX, MAX, MAX));
+    }
+
+    @Test
+    public void sampleSize_justUnderTwiceIsNotSampled() {
+        assertEquals(1, ProfileImageIngestor.sampleSize(MAX * 2 - 1, MAX * 2 - 1, MAX));
+        assertEquals(2, ProfileImageIngestor.sampleSize(MAX * 2, MAX * 2, MAX));
+    }
+
+    @Test
+    public void sampleSize_twelveMegapixelPhoto() {
+        // 4000x3000: 3000 / 4 = 750 >= 512, 3000 / 8 = 375 < 512
+        assertEquals(4, ProfileImageIngestor.sampleSize(4000, 3000, MAX));
+        assertEquals(4, ProfileImageIngestor.sampleSize(3000, 4000, MAX));
+    }
+
+    @Test
+    public void sampleSize_keepsShorterSideAtLeastMax() {
+        int[][] sizes = {{4000, 3000}, {8000, 600}, {1024, 1024}, {6000, 6000}, {513, 10000}};
+        for (int[] size : sizes) {
+            int sampleSize = ProfileImageIngestor.sampleSize(size[0], size[1], MAX);
+            assertEquals("power of two", 0, sampleSize & (sampleSize - 1));
+            int shorter = Math.min(size[0], size[1]);
+            if (shorter >= MAX) {
+                assertTrue(shorter / sampleSize >= MAX);
+            }
+            // Doubling it would go below the maximum
+            assertTrue(shorter / (sampleSize * 2) < MAX);
+        }
+    }
+
+    @Test
+    public void sampleSize_usesShorterSide() {
+        // A wide panorama is limited by its height
+        assertEquals(1, ProfileImageIngestor.sampleSize(8000, 600, MAX));
+    }
+}